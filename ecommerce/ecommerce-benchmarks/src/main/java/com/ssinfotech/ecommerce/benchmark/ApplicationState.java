@@ -0,0 +1,102 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import com.ssinfotech.ecommerce.HospitalECommercePlatformApplication;
+import com.ssinfotech.ecommerce.controller.OrderController;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+
+/**
+ * The running application, started once per fork with the "bench" profile (H2 in DB2 mode),
+ * with a seeded catalog and one customer account. A benchmark with a "batchSize" parameter
+ * runs with that hibernate.jdbc.batch_size instead of the configured one.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    public static final int CATALOG_SIZE = 1000;
+    public static final String CUSTOMER_EMAIL = "buyer@benchmark.example";
+    public static final String CUSTOMER_PASSWORD = "benchmark-password";
+
+    private static final String[] CATEGORIES = {"Diagnostics", "Surgical", "Monitoring", "Consumables", "Furniture"};
+
+    public ConfigurableApplicationContext context;
+    public Long customerId;
+    public List<Long> productIds;
+
+    @Setup(Level.Trial)
+    public void start(BenchmarkParams params) {
+        // Passed as arguments, since default properties do not override application.properties
+        List<String> args = new ArrayList<>();
+        if (params.getParam("batchSize") != null) {
+            args.add("--spring.jpa.properties.hibernate.jdbc.batch_size=" + params.getParam("batchSize"));
+        }
+        context = new SpringApplicationBuilder(HospitalECommercePlatformApplication.class)
+                .profiles("bench")
+                .properties("server.port=0")
+                .run(args.toArray(String[]::new));
+
+        User customer = newUser("Benchmark Buyer");
+        customer.setEmail(CUSTOMER_EMAIL);
+        customer.setPassword(bean(PasswordEncoder.class).encode(CUSTOMER_PASSWORD));
+        customerId = bean(UserRepository.class).save(customer).getId();
+
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            // Enough stock that checkout never runs out
+            Product product = newProduct("Hospital equipment item " + i, 5.0 + (i * 37) % 12000, 1_000_000_000);
+            product.setDescription("Certified equipment for wards and operating theatres, model " + i);
+            product.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            products.add(product);
+        }
+        productIds = bean(ProductRepository.class).saveAll(products).stream().map(Product::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Keep the order tables small so later iterations do not measure a growing database
+    public void deleteOrders() {
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+        jdbc.update("DELETE FROM order_items");
+        jdbc.update("DELETE FROM orders");
+    }
+
+    // A fresh order request for the given number of distinct products, as the controller receives it
+    public OrderController.OrderRequest newOrderRequest(int lines) {
+        List<OrderItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(newItem(productIds.get(i), 1));
+        }
+        OrderController.OrderRequest request = new OrderController.OrderRequest();
+        request.setOrder(newOrder());
+        request.setOrderItems(items);
+        return request;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH options and adds the GC profiler
+ * unless another profiler is chosen, so every run also reports allocation rate per operation.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(List.of(args));
+        if (!options.contains("-prof")) {
+            options.add("-prof");
+            options.add("gc");
+        }
+        Main.main(options.toArray(String[]::new));
+    }
+}
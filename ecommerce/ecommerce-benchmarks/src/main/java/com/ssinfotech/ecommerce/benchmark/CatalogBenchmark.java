@@ -0,0 +1,60 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.service.CatalogSnapshotService;
+import com.ssinfotech.ecommerce.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog reads through ProductService, with the product cache warm as it is in steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogBenchmark {
+
+    private ProductService productService;
+    private List<Long> productIds;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        this.productService = app.bean(ProductService.class);
+        this.productIds = app.productIds;
+        productIds.forEach(productService::getProductById);
+        productService.getCatalogSnapshot(null);
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts() {
+        return productService.getAllProducts();
+    }
+
+    // What GET /api/products hands to the response: no serialization, no copy
+    @Benchmark
+    public CatalogSnapshotService.Entry getCatalogSnapshot() {
+        return productService.getCatalogSnapshot(null);
+    }
+
+    @Benchmark
+    public Optional<Product> getProductById() {
+        return productService.getProductById(productIds.get(ThreadLocalRandom.current().nextInt(productIds.size())));
+    }
+}
@@ -0,0 +1,61 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import com.ssinfotech.ecommerce.controller.OrderController;
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.placeOrder for a small cart and a large procurement order: product lookup,
+ * order inserts and the stock reservation, committed in one transaction. The inserts run with
+ * JDBC batching (batchSize 50, as configured) and without it (1, one round trip per row).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"3", "200"})
+    public int lines;
+
+    // hibernate.jdbc.batch_size, applied by ApplicationState
+    @Param({"50", "1"})
+    public int batchSize;
+
+    private ApplicationState app;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        this.app = app;
+        this.orderService = app.bean(OrderService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteOrders() {
+        app.deleteOrders();
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        OrderController.OrderRequest request = app.newOrderRequest(lines);
+        return orderService.placeOrder(app.customerId, request.getOrder(), request.getOrderItems());
+    }
+}
@@ -0,0 +1,64 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+
+/**
+ * Checkout throughput on a single hot SKU: 16 buyers place one-unit orders for the same product
+ * at once, so every order contends for the same stock row. InventoryReservationStressTest checks
+ * that such a run never oversells; this measures how many orders per millisecond it sustains.
+ * Run with -t to compare other thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class HotSkuBenchmark {
+
+    private ApplicationState app;
+    private OrderService orderService;
+    private Long productId;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        this.app = app;
+        this.orderService = app.bean(OrderService.class);
+        // Enough stock that the product never sells out during the run
+        this.productId = app.bean(ProductRepository.class)
+                .save(newProduct("Nitrile gloves (box of 100)", 12.5, 1_000_000_000)).getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteOrders() {
+        app.deleteOrders();
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        return orderService.placeOrder(app.customerId, newOrder(), List.of(newItem(productId, 1)));
+    }
+}
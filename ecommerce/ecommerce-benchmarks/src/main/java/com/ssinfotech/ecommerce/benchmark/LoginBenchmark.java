@@ -0,0 +1,69 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import com.ssinfotech.ecommerce.controller.UserController;
+import com.ssinfotech.ecommerce.dto.LoginRequest;
+import com.ssinfotech.ecommerce.security.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating: the full login (user lookup, BCrypt check, token issue), the BCrypt
+ * check on its own, and the token check that every later request pays instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoginBenchmark {
+
+    private UserController userController;
+    private PasswordEncoder passwordEncoder;
+    private TokenService tokenService;
+    private LoginRequest loginRequest;
+    private String passwordHash;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        this.userController = app.bean(UserController.class);
+        this.passwordEncoder = app.bean(PasswordEncoder.class);
+        this.tokenService = app.bean(TokenService.class);
+
+        this.loginRequest = new LoginRequest();
+        loginRequest.setEmail(ApplicationState.CUSTOMER_EMAIL);
+        loginRequest.setPassword(ApplicationState.CUSTOMER_PASSWORD);
+        this.passwordHash = passwordEncoder.encode(ApplicationState.CUSTOMER_PASSWORD);
+        this.token = tokenService.issue(tokenService.newClaims(app.customerId, ApplicationState.CUSTOMER_EMAIL, "USER"));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> login() {
+        return userController.login(loginRequest);
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return passwordEncoder.matches(ApplicationState.CUSTOMER_PASSWORD, passwordHash);
+    }
+
+    @Benchmark
+    public Optional<TokenService.TokenClaims> verifyToken() {
+        return tokenService.verify(token);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import com.ssinfotech.ecommerce.dto.ProductSearchResult;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+
+/**
+ * The search index on its own with a large vocabulary: 100,000 products, each with a model code
+ * of its own, as staff type a query one letter at a time. One- and two-letter prefixes sit above
+ * tens of thousands of terms, so these show that a keystroke does not cost O(vocabulary).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final String[] WORDS = {"oxygen", "infusion", "pump", "monitor", "sterile", "surgical",
+            "disposable", "adult", "paediatric", "mask", "catheter", "syringe", "bed", "ward", "portable"};
+
+    @Param({"o", "ox", "oxy", "oxygen ma"})
+    public String typed;
+
+    private ProductSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new ProductSearchIndex(null);
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = newProduct(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " model " + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36), 10.0, 5);
+            product.setId((long) i);
+            product.setDescription(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+            products.add(product);
+        }
+        index.productsSaved(products);
+    }
+
+    @Benchmark
+    public List<String> autocomplete() {
+        return index.autocomplete(typed, 10);
+    }
+
+    @Benchmark
+    public ProductSearchResult search() {
+        return index.search(typed, 0, 20);
+    }
+}
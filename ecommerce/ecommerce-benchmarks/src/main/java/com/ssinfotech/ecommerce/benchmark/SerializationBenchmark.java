@@ -0,0 +1,71 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.controller.OrderController;
+import com.ssinfotech.ecommerce.dto.OrderHistoryEntry;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.service.OrderService;
+import com.ssinfotech.ecommerce.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the order and Product response bodies with the application's ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int ORDER_LINES = 20;
+
+    private ObjectMapper objectMapper;
+    private OrderHistoryEntry order;
+    private Product product;
+    private List<Product> catalog;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        this.objectMapper = app.bean(ObjectMapper.class);
+
+        // The same object POST /api/orders returns
+        OrderController.OrderRequest request = app.newOrderRequest(ORDER_LINES);
+        this.order = OrderService.toHistoryEntry(
+                app.bean(OrderService.class).placeOrder(app.customerId, request.getOrder(), request.getOrderItems()));
+
+        ProductService productService = app.bean(ProductService.class);
+        this.product = productService.getProductById(app.productIds.get(0)).orElseThrow();
+        this.catalog = productService.getAllProducts();
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] product() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] productList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+}
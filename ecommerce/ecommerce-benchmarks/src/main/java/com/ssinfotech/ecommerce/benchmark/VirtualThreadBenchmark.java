@@ -0,0 +1,130 @@
+package com.ssinfotech.ecommerce.benchmark;
+
+import com.ssinfotech.ecommerce.config.DatabaseConcurrencyLimiter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request handling with a slow database, with Tomcat's default pool of 200 platform threads and
+ * with a virtual thread per request. Database requests (20 ms each) go through a
+ * DatabaseConcurrencyLimiter sized like the connection pool and keep a fixed backlog in flight;
+ * a 1 ms request served from memory is measured against that load. The numbers are:
+ * <ul>
+ *   <li>thrpt: in-memory requests completed per millisecond, one at a time</li>
+ *   <li>sample (p99 and the other percentiles): latency of an in-memory request</li>
+ *   <li>databaseRequests (a secondary result of thrpt): database requests completed per
+ *       millisecond, across the whole backlog</li>
+ * </ul>
+ * This is the executor and the limiter alone, without Tomcat or the application. The "virtual"
+ * executor is looked up reflectively and needs a Java 21 JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final int DB_PERMITS = 20;
+    private static final int DB_BACKLOG = 400;
+    private static final long DB_CALL_MILLIS = 20;
+    private static final long IN_MEMORY_MILLIS = 1;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    private ExecutorService requests;
+    private DatabaseConcurrencyLimiter limiter;
+    private final LongAdder completedDatabaseRequests = new LongAdder();
+    private volatile boolean loaded;
+
+    // Database requests completed during the current iteration, reported as a rate
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class DatabaseCounters {
+        public long databaseRequests;
+        private long completedBefore;
+
+        @Setup(Level.Iteration)
+        public void reset(VirtualThreadBenchmark benchmark) {
+            databaseRequests = 0;
+            completedBefore = benchmark.completedDatabaseRequests.sum();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.requests = "virtual".equals(executor)
+                ? (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        this.limiter = new DatabaseConcurrencyLimiter(DB_PERMITS, DB_BACKLOG, Duration.ofMinutes(1));
+        this.loaded = true;
+        for (int i = 0; i < DB_BACKLOG; i++) {
+            requests.execute(this::databaseRequest);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        loaded = false;
+        requests.shutdownNow();
+        requests.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    public Object inMemoryRequestWhileTheDatabaseIsBusy(DatabaseCounters counters) throws Exception {
+        Object result = requests.submit(() -> {
+            Thread.sleep(IN_MEMORY_MILLIS);
+            return Boolean.TRUE;
+        }).get();
+        counters.databaseRequests = completedDatabaseRequests.sum() - counters.completedBefore;
+        return result;
+    }
+
+    // Each finished database request is replaced by a new one at the back of the queue
+    private void databaseRequest() {
+        try {
+            limiter.acquire();
+            try {
+                Thread.sleep(DB_CALL_MILLIS);
+            } finally {
+                limiter.release();
+            }
+            completedDatabaseRequests.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (SQLTransientConnectionException e) {
+            return;
+        }
+        if (loaded) {
+            try {
+                requests.execute(this::databaseRequest);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+    }
+}
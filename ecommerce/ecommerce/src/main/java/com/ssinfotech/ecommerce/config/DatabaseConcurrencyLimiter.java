@@ -0,0 +1,85 @@
+package com.ssinfotech.ecommerce.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps how many callers may hold or wait for a database connection.
+ * With virtual threads there is no thread pool to bound concurrency, so thousands of requests
+ * could otherwise queue inside the connection pool until they time out. Permits match the pool
+ * size; callers beyond maxWaiters, or still waiting after acquireTimeout, fail fast instead.
+ */
+public class DatabaseConcurrencyLimiter implements MeterBinder {
+
+    private final Semaphore permits;
+    private final int maxWaiters;
+    private final Duration acquireTimeout;
+    private final AtomicInteger waiters = new AtomicInteger();
+    private volatile Timer waitTimer;  // set once metrics are bound
+
+    public DatabaseConcurrencyLimiter(int permits, int maxWaiters, Duration acquireTimeout) {
+        this.permits = new Semaphore(permits, true);
+        this.maxWaiters = maxWaiters;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public void acquire() throws SQLTransientConnectionException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiters.incrementAndGet() > maxWaiters) {
+            waiters.decrementAndGet();
+            throw new SQLTransientConnectionException("Too many requests waiting for a database connection");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + acquireTimeout.toMillis() + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+            Timer timer = waitTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int waiting() {
+        return waiters.get();
+    }
+
+    // In virtual-thread mode callers queue here rather than in the connection pool
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.limiter.waiting", waiters, AtomicInteger::get)
+                .description("Callers waiting for a database permit")
+                .register(registry);
+        Gauge.builder("db.limiter.available", permits, Semaphore::availablePermits)
+                .description("Database permits currently free")
+                .register(registry);
+        waitTimer = Timer.builder("db.limiter.wait")
+                .description("Time spent waiting for a database permit, when one was not free immediately")
+                .register(registry);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ssinfotech.ecommerce.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the
+ * primary. The replica is skipped while it lags more than tolerated and for users who wrote
+ * within the read-your-writes window. Must sit behind a LazyConnectionDataSourceProxy: the
+ * transaction manager asks for a connection before the transaction is marked read-only, and
+ * the proxy defers the choice to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+    private volatile Counter primaryCounter;  // set once metrics are bound
+    private volatile Counter replicaCounter;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && lagMonitor.isUsable()
+                && !readYourWrites.isCurrentUserPinnedToPrimary()
+                ? Target.REPLICA : Target.PRIMARY;
+        Counter counter = target == Target.REPLICA ? replicaCounter : primaryCounter;
+        if (counter != null) {
+            counter.increment();
+        }
+        return target;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        primaryCounter = connections(registry, "primary");
+        replicaCounter = connections(registry, "replica");
+    }
+
+    private static Counter connections(MeterRegistry registry, String target) {
+        return Counter.builder("db.routing.connections")
+                .description("Connections handed out by the read/write routing DataSource")
+                .tag("target", target)
+                .register(registry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ssinfotech.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ssinfotech.ecommerce.security.AppUserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Users who wrote recently, so their reads stay on the primary until the replica has caught up
+ * and they never miss their own order. The window should be at least the replica lag that is
+ * tolerated (app.datasource.replica.max-lag). Without a replica nothing reads this.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(
+            @Value("${app.datasource.replica.read-your-writes-window:${app.datasource.replica.max-lag:5s}}") Duration window,
+            @Value("${app.datasource.replica.read-your-writes-maximum-size:100000}") long maximumSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    // Inside a transaction the window starts when it commits; a rollback pins nothing
+    public void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isPinnedToPrimary(Long userId) {
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    // The user of the current request, if it is authenticated as a user with a row in the user table
+    public boolean isCurrentUserPinnedToPrimary() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AppUserPrincipal principal
+                && isPinnedToPrimary(principal.getUserId());
+    }
+}
@@ -0,0 +1,74 @@
+package com.ssinfotech.ecommerce.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Decides whether the read replica may serve reads. The lag query (one row, one column: seconds
+ * behind the primary) is required: the replica is used only while the last check succeeded and
+ * reported at most maxLag; until the first check, and whenever a check fails, reads go to the
+ * primary.
+ */
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+        // Without a lag query nothing would ever notice a replica that stopped replicating
+        if (lagQuery == null || lagQuery.isBlank()) {
+            throw new RuntimeException("app.datasource.replica.lag-query must be set when app.datasource.replica.url is");
+        }
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:5s}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Number lag = replica.queryForObject(lagQuery, Number.class);
+            lagSeconds = lag == null ? Double.NaN : lag.doubleValue();
+            usable = lag != null && lagSeconds * 1000 <= maxLag.toMillis();
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            }
+        }
+        if (wasUsable != usable) {
+            log.info("Read replica {} (lag {} s, tolerated {} s)", usable ? "in use" : "bypassed",
+                    lagSeconds, maxLag.toMillis() / 1000.0);
+        }
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replica lag reported by the last check, in seconds")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("db.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("1 while read-only transactions may use the replica")
+                .register(registry);
+    }
+}
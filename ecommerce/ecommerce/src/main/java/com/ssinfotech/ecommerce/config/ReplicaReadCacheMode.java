@@ -0,0 +1,50 @@
+package com.ssinfotech.ecommerce.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-only transactions may read from the replica, which can be behind the primary. Their
+ * entity managers still read the second-level cache but do not add to it (store mode BYPASS), so a row
+ * read from the replica is never served from the cache to a transaction on the primary, such
+ * as the price lookup when an order is placed.
+ */
+public class ReplicaReadCacheMode implements TransactionExecutionListener {
+
+    // Hibernate reads the store mode from this property for finds as well as queries
+    private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ReplicaReadCacheMode(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, @Nullable Throwable beginFailure) {
+        if (beginFailure != null || !transaction.isNewTransaction() || !transaction.isReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !(TransactionSynchronizationManager.getResource(entityManagerFactory) instanceof EntityManagerHolder holder)) {
+            return;
+        }
+        // With open-in-view the entity manager outlives the transaction, so restore its mode afterwards
+        EntityManager entityManager = holder.getEntityManager();
+        Object previous = entityManager.getProperties().getOrDefault(STORE_MODE, CacheStoreMode.USE);
+        entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (entityManager.isOpen()) {
+                    entityManager.setProperty(STORE_MODE, previous);
+                }
+            }
+        });
+    }
+}
@@ -1,33 +1,42 @@
 package com.ssinfotech.ecommerce.config;
 
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.AppUserPrincipal;
+import com.ssinfotech.ecommerce.security.DatabaseUserDetailsService;
+import com.ssinfotech.ecommerce.security.TokenAuthenticationFilter;
+import com.ssinfotech.ecommerce.security.TokenService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableMethodSecurity  // Optional: enables method-level @PreAuthorize etc.
 public class SecurityConfig {
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        // Define an in-memory admin user
-        UserDetails admin = User.builder()
-                .username("admin")
-                .password(passwordEncoder().encode("admin123"))  // Use a strong password in production
-                .roles("ADMIN")
-                .build();
-
+    public DatabaseUserDetailsService userDetailsService(
+            UserRepository userRepository,
+            @Value("${security.user-cache.maximum-size:10000}") long cacheSize,
+            @Value("${security.user-cache.ttl:10m}") Duration cacheTtl) {
+        // Built-in admin account, used when no database user has this username
+        AppUserPrincipal admin = new AppUserPrincipal(
+                null,
+                "admin",
+                passwordEncoder().encode("admin123"),  // Use a strong password in production
+                "ADMIN");
 
-        return new InMemoryUserDetailsManager(admin);
+        return new DatabaseUserDetailsService(userRepository, List.of(admin), cacheSize, cacheTtl);
     }
 
     @Bean
@@ -36,25 +45,36 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService) throws Exception {
         http
                 // Disable CSRF for API simplicity (enable and configure for production)
                 .csrf(csrf -> csrf.disable())
 
+                // Every request authenticates itself (bearer token or HTTP Basic); no server-side session
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+
                 // Configure endpoint security rules
                 .authorizeHttpRequests(auth -> auth
                         // Public endpoints (registration and login)
                         .requestMatchers("/api/users/register", "/api/users/login").permitAll()
 
+                        // Health checks are public; metrics and the Prometheus scrape endpoint are for admins
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // Addresses and user orders require authentication
                         .requestMatchers("/api/addresses/**", "/api/orders/user").authenticated()
 
-                        // Admin-only endpoints: product CRUD and admin order management
-                        .requestMatchers("/api/products/**", "/api/orders", "/api/orders/*/status").hasRole("ADMIN")
+                        // Admin-only endpoints: product CRUD, admin order management and sales analytics
+                        .requestMatchers("/api/products/**", "/api/orders", "/api/orders/export", "/api/orders/status", "/api/orders/*/status").hasRole("ADMIN")
+                        .requestMatchers("/api/analytics/**").hasRole("ADMIN")
 
                         // Any other requests require authentication
                         .anyRequest().authenticated()
                 )
+                // Bearer tokens issued by /api/users/login are checked with an HMAC, not BCrypt
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class)
+
                 // Enable HTTP Basic authentication
                 .httpBasic(Customizer.withDefaults());
 
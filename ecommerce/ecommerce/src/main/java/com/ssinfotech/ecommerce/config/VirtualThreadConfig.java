@@ -0,0 +1,46 @@
+package com.ssinfotech.ecommerce.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Virtual-thread runtime mode (Java 21, activate the "virtual" profile).
+ * Spring Boot then runs Tomcat requests and task executors on virtual threads; this configuration
+ * adds a connection-aware concurrency limit in front of the DataSource so that unbounded request
+ * concurrency cannot pile up on DB2.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public DatabaseConcurrencyLimiter databaseConcurrencyLimiter(
+            @Value("${app.virtual-threads.db-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${app.virtual-threads.db-max-waiters:1000}") int maxWaiters,
+            @Value("${app.virtual-threads.db-acquire-timeout:5s}") Duration acquireTimeout) {
+        return new DatabaseConcurrencyLimiter(permits, maxWaiters, acquireTimeout);
+    }
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            ObjectProvider<DatabaseConcurrencyLimiter> limiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the application's DataSource: wrapping nested pools too would take two permits per connection
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource(dataSource, limiter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.ssinfotech.ecommerce.dto.SalesDashboard;
+import com.ssinfotech.ecommerce.service.SalesAnalytics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:5173")  // Allow requests from frontend dev server
+public class AnalyticsController {
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    // Admin dashboard: revenue for the last `days` days, orders by status, category revenue
+    // and the `top` best-selling products, all from in-memory rollups
+    @GetMapping("/dashboard")
+    public SalesDashboard getDashboard(@RequestParam(defaultValue = "30") int days,
+                                       @RequestParam(defaultValue = "10") int top) {
+        return salesAnalytics.dashboard(days, top);
+    }
+}
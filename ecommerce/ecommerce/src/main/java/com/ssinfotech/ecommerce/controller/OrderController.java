@@ -1,17 +1,39 @@
 package com.ssinfotech.ecommerce.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ssinfotech.ecommerce.dto.BulkStatusUpdateResult;
+import com.ssinfotech.ecommerce.dto.OrderHandle;
+import com.ssinfotech.ecommerce.dto.OrderHistoryEntry;
+import com.ssinfotech.ecommerce.dto.OrderSummary;
 import com.ssinfotech.ecommerce.model.Order;
 import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.security.AppUserPrincipal;
+import com.ssinfotech.ecommerce.service.IdempotencyStore;
+import com.ssinfotech.ecommerce.service.OrderIngestionQueue;
 import com.ssinfotech.ecommerce.service.OrderService;
-import com.ssinfotech.ecommerce.service.UserService;  // for getting user info by email
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -21,7 +43,15 @@ public class OrderController {
     private OrderService orderService;
 
     @Autowired
-    private UserService userService;  // To get userId from email
+    private OrderIngestionQueue orderIngestionQueue;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
     // DTO class to accept order data and order items in one request
     public static class OrderRequest {
@@ -43,41 +73,106 @@ public class OrderController {
         public void setStatus(String status) { this.status = status; }
     }
 
+    // DTO for bulk status changes: either explicit order ids, or a filter on current status / creation time
+    public static class BulkStatusUpdateRequest {
+        private List<Long> orderIds;
+        private String currentStatus;
+        private LocalDateTime createdBefore;
+        private String status;
+
+        public List<Long> getOrderIds() { return orderIds; }
+        public void setOrderIds(List<Long> orderIds) { this.orderIds = orderIds; }
+
+        public String getCurrentStatus() { return currentStatus; }
+        public void setCurrentStatus(String currentStatus) { this.currentStatus = currentStatus; }
+
+        public LocalDateTime getCreatedBefore() { return createdBefore; }
+        public void setCreatedBefore(LocalDateTime createdBefore) { this.createdBefore = createdBefore; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+    }
+
     /**
      * Place a new order for the logged-in user.
      * The frontend sends an OrderRequest JSON containing order and list of order items.
+     * The response is 201 with the placed order in the same shape as the order history.
+     * With async=true the order is validated and queued, and the response is 202 with a handle
+     * to poll at /api/orders/pending/{handle}; 503 means the queue is full.
+     * With an Idempotency-Key header, a retry of a successful request gets the original response
+     * back (marked Idempotent-Replayed) instead of placing the order again.
      */
     @PostMapping
-    public ResponseEntity<?> placeOrder(Authentication authentication,
-                                        @RequestBody OrderRequest orderRequest) {
+    public ResponseEntity<?> placeOrder(@AuthenticationPrincipal AppUserPrincipal principal,
+                                        @RequestBody OrderRequest orderRequest,
+                                        @RequestParam(defaultValue = "false") boolean async,
+                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null || principal == null || principal.getUserId() == null) {
+            return submitOrder(principal, orderRequest, async);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(IdempotencyStore.HEADER + " must be 1 to "
+                    + IdempotencyStore.MAX_KEY_LENGTH + " characters");
+        }
+        IdempotencyStore.Outcome outcome = idempotencyStore.execute(principal.getUserId(), idempotencyKey,
+                fingerprint(orderRequest, async), () -> store(submitOrder(principal, orderRequest, async)));
+        IdempotencyStore.StoredResponse response = outcome.response();
+        return ResponseEntity.status(response.status())
+                .headers(response.headers())
+                .header(IdempotencyStore.REPLAYED_HEADER, Boolean.toString(outcome.replayed()))
+                .body(response.body());
+    }
+
+    private ResponseEntity<?> submitOrder(AppUserPrincipal principal, OrderRequest orderRequest, boolean async) {
         try {
-            // Get logged-in user's email
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String email = userDetails.getUsername();
+            // User ID comes from the authenticated principal, no lookup needed
+            Long userId = requireUserId(principal);
 
-            // Retrieve user ID from email
-            Long userId = userService.findByEmail(email).getId();
+            if (async) {
+                Optional<OrderHandle> handle = orderIngestionQueue.submit(
+                        userId, orderRequest.getOrder(), orderRequest.getOrderItems());
+                return handle.<ResponseEntity<?>>map(h -> ResponseEntity.status(HttpStatus.ACCEPTED).body(h))
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header("Retry-After", "1")
+                                .body("Order queue is full, please retry"));
+            }
 
             // Call service to place order
             Order savedOrder = orderService.placeOrder(userId, orderRequest.getOrder(), orderRequest.getOrderItems());
 
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
+            return ResponseEntity.status(HttpStatus.CREATED).body(OrderService.toHistoryEntry(savedOrder));
+        } catch (InterruptedException e) {
+            // Interrupted while waiting for queue space: nothing was queued, the client may retry
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body("Order was not queued, please retry");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to place order: " + e.getMessage());
         }
     }
 
     /**
-     * Get orders of the logged-in user.
+     * Status of an order submitted with async=true.
+     */
+    @GetMapping("/pending/{handle}")
+    public ResponseEntity<?> getPendingOrder(@AuthenticationPrincipal AppUserPrincipal principal,
+                                             @PathVariable String handle) {
+        Long userId = principal == null ? null : principal.getUserId();
+        return orderIngestionQueue.status(userId, handle)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get orders of the logged-in user, with item lines, newest first.
      */
     @GetMapping("/user")
-    public ResponseEntity<?> getUserOrders(Authentication authentication) {
+    public ResponseEntity<?> getUserOrders(@AuthenticationPrincipal AppUserPrincipal principal) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String email = userDetails.getUsername();
-            Long userId = userService.findByEmail(email).getId();
+            Long userId = requireUserId(principal);
 
-            List<Order> orders = orderService.getOrdersByUser(userId);
+            List<OrderHistoryEntry> orders = orderService.getOrderHistory(userId);
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to retrieve user orders: " + e.getMessage());
@@ -85,15 +180,37 @@ public class OrderController {
     }
 
     /**
-     * Get all orders (admin only).
+     * Get all orders with their item lines, newest first (admin only).
      * Secure this endpoint by role in security configuration.
      */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
+    public ResponseEntity<List<OrderHistoryEntry>> getAllOrders() {
+        List<OrderHistoryEntry> orders = orderService.getAllOrders();
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Export orders as newline-delimited JSON (admin only).
+     * Orders are streamed from the database and written as they are read, optionally
+     * filtered by creation time range [from, to) and status.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status) {
+        ObjectWriter writer = objectMapper.writerFor(OrderSummary.class);
+        StreamingResponseBody body = out -> orderService.exportOrders(from, to, status, summary -> {
+            try {
+                out.write(writer.writeValueAsBytes(summary));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Update status of an order (admin only).
      */
@@ -101,11 +218,92 @@ public class OrderController {
     public ResponseEntity<?> updateOrderStatus(@PathVariable Long orderId,
                                                @RequestBody StatusUpdateRequest statusUpdateRequest) {
         try {
-            Order updatedOrder = orderService.updateOrderStatus(orderId, statusUpdateRequest.getStatus());
+            OrderHistoryEntry updatedOrder = orderService.updateOrderStatus(orderId, statusUpdateRequest.getStatus());
             return ResponseEntity.ok(updatedOrder);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Failed to update order status: " + e.getMessage());
         }
     }
-}
 
+    /**
+     * Change the status of many orders at once (admin only).
+     * Send either "orderIds", or "currentStatus" (plus optional "createdBefore") to select orders by filter.
+     * The response lists the outcome for every order id. Orders are committed in chunks; if one fails,
+     * the response is still 200 with the orders updated before it, the failed chunk, and "incomplete".
+     */
+    @PutMapping("/status")
+    public ResponseEntity<?> updateOrderStatuses(@RequestBody BulkStatusUpdateRequest request) {
+        try {
+            BulkStatusUpdateResult result;
+            if (request.getOrderIds() != null) {
+                result = orderService.updateOrderStatuses(request.getOrderIds(), request.getStatus());
+            } else if (request.getCurrentStatus() != null) {
+                result = orderService.updateOrderStatusesWhere(request.getCurrentStatus(),
+                        request.getCreatedBefore(), request.getStatus());
+            } else {
+                return ResponseEntity.badRequest().body("Either orderIds or currentStatus is required");
+            }
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to update order statuses: " + e.getMessage());
+        }
+    }
+
+    // Built-in accounts (e.g. the bootstrap admin) have no customer record to order with
+    private static Long requireUserId(AppUserPrincipal principal) {
+        if (principal == null || principal.getUserId() == null) {
+            throw new RuntimeException("No customer account for the authenticated user");
+        }
+        return principal.getUserId();
+    }
+
+    // The response as it will be sent, serialized once so a replay is just a copy of the bytes.
+    // Bodies are DTOs (OrderHistoryEntry, OrderHandle), so no account data is held for the replay window.
+    private IdempotencyStore.StoredResponse store(ResponseEntity<?> response) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        byte[] body;
+        if (response.getBody() == null) {
+            body = new byte[0];
+        } else if (response.getBody() instanceof String text) {
+            headers.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+            body = text.getBytes(StandardCharsets.UTF_8);
+        } else {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            try {
+                body = objectMapper.writeValueAsBytes(response.getBody());
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new IdempotencyStore.StoredResponse(response.getStatusCode().value(),
+                HttpHeaders.readOnlyHttpHeaders(headers), body);
+    }
+
+    // SHA-256 of what the client chose (address, products and quantities), so a key reused for a
+    // different order is recognised; timestamps the entity sets on construction are left out
+    private String fingerprint(OrderRequest orderRequest, boolean async) {
+        List<Object> fields = new ArrayList<>();
+        Order order = orderRequest.getOrder();
+        if (order != null) {
+            fields.addAll(Arrays.asList(order.getFullName(), order.getPhone(), order.getAddressLine1(),
+                    order.getAddressLine2(), order.getCity(), order.getPincode(), order.getState(), order.getCountry()));
+        }
+        if (orderRequest.getOrderItems() != null) {
+            for (OrderItem item : orderRequest.getOrderItems()) {
+                fields.add(item.getProduct() != null ? item.getProduct().getId() : null);
+                fields.add(item.getQuantity());
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(objectMapper.writeValueAsBytes(fields));
+            digest.update((byte) (async ? 1 : 0));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package com.ssinfotech.ecommerce.controller;
 
+import com.ssinfotech.ecommerce.dto.ProductFacets;
+import com.ssinfotech.ecommerce.dto.ProductPage;
+import com.ssinfotech.ecommerce.dto.ProductSearchResult;
 import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.service.CatalogSnapshotService;
+import com.ssinfotech.ecommerce.service.ProductImportService;
 import com.ssinfotech.ecommerce.service.ProductService;
+import com.ssinfotech.ecommerce.service.ProductVersionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/products")
@@ -16,40 +31,118 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
     // Create product
     @PostMapping
     public Product createProduct(@RequestBody Product product) {
         return productService.saveProduct(product);
     }
 
-    // Get all products
+    // Bulk import from a CSV upload with a header row (columns: sku, name, description, price, quantity,
+    // imageUrl, category). The body is streamed; rows are upserted by sku and bad rows listed in the report.
+    // Once rows have been read, a failure no longer fails the request: what was imported is reported, marked incomplete.
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importCsv(InputStream body) {
+        try {
+            return ResponseEntity.ok(productImportService.importCsv(body));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
+        }
+    }
+
+    // Bulk import from JSON lines: one product object per line, same fields as the CSV columns
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "application/jsonl"})
+    public ResponseEntity<?> importJsonLines(InputStream body) {
+        try {
+            return ResponseEntity.ok(productImportService.importJsonLines(body));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
+        }
+    }
+
+    // Get all products, or those of one category, as pre-serialized bytes (gzip when the client accepts it).
+    // The gzip representation has its own ETag, so If-None-Match is checked against the one that would be sent.
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<byte[]> getAllProducts(@RequestParam(required = false) String category,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                 WebRequest request) {
+        CatalogSnapshotService.Entry snapshot = productService.getCatalogSnapshot(category);
+        boolean gzip = snapshot.gzip() != null && acceptsGzip(acceptEncoding);
+        String eTag = snapshot.eTag() == null || !gzip ? snapshot.eTag()
+                : snapshot.eTag().substring(0, snapshot.eTag().length() - 1) + "-gz\"";
+        if (eTag != null && request.checkNotModified(eTag, snapshot.lastModifiedMillis())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (eTag != null) {
+            response.eTag(eTag).lastModified(snapshot.lastModifiedMillis());
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? snapshot.gzip() : snapshot.json());
+    }
+
+    // Get one page of products, optionally filtered by category and price range.
+    // Pass the returned nextCursor as "after" to fetch the following page.
+    @GetMapping("/page")
+    public ProductPage getProductPage(@RequestParam(required = false) Long after,
+                                      @RequestParam(required = false) Integer size,
+                                      @RequestParam(required = false) String category,
+                                      @RequestParam(required = false) Double minPrice,
+                                      @RequestParam(required = false) Double maxPrice) {
+        return productService.getProductPage(after, size, category, minPrice, maxPrice);
+    }
+
+    // Ranked full-text search; the last word of q also matches as a prefix
+    @GetMapping("/search")
+    public ProductSearchResult searchProducts(@RequestParam String q,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "20") int size) {
+        return productService.searchProducts(q, page, size);
+    }
+
+    // Search-as-you-type suggestions
+    @GetMapping("/autocomplete")
+    public List<String> autocomplete(@RequestParam String prefix,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        return productService.autocomplete(prefix, limit);
     }
 
-    // Get product by id
+    // Filter facets: per-category counts and the price histogram (optionally within one category)
+    @GetMapping("/facets")
+    public ProductFacets getFacets(@RequestParam(required = false) String category) {
+        return productService.getFacets(category);
+    }
+
+    // Catalog cache hit/miss/eviction counters
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return productService.getCacheStats();
+    }
+
+    // Get product by id, with the same conditional GET handling as the full listing
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        return conditionally(request, productService.getProductValidators(id),
+                () -> productService.getProductById(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     // Update product
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
-        return productService.getProductById(id)
-                .map(existingProduct -> {
-                    existingProduct.setName(productDetails.getName());
-                    existingProduct.setDescription(productDetails.getDescription());
-                    existingProduct.setPrice(productDetails.getPrice());
-                    existingProduct.setQuantity(productDetails.getQuantity());
-                    existingProduct.setImageUrl(productDetails.getImageUrl());
-                    existingProduct.setCategory(productDetails.getCategory());
-                    Product updated = productService.saveProduct(existingProduct);
-                    return ResponseEntity.ok(updated);
-                })
+        return productService.updateProduct(id, productDetails)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -59,5 +152,40 @@ public class ProductController {
         productService.deleteProductById(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    // True unless gzip is absent or explicitly refused with q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // Validators are read before the body is loaded, so a response never carries an ETag newer than its content.
+    // no-cache lets browsers and proxies store the response but makes them revalidate it on every use.
+    private <T> ResponseEntity<T> conditionally(WebRequest request, Optional<ProductVersionIndex.Validators> validators,
+                                                Supplier<ResponseEntity<T>> load) {
+        if (validators.isEmpty()) {
+            return load.get();
+        }
+        ProductVersionIndex.Validators current = validators.get();
+        if (request.checkNotModified(current.eTag(), current.lastModifiedMillis())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        ResponseEntity<T> response = load.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.ok()
+                .eTag(current.eTag())
+                .lastModified(current.lastModifiedMillis())
+                .cacheControl(CacheControl.noCache())
+                .body(response.getBody());
+    }
+}
@@ -1,8 +1,11 @@
 package com.ssinfotech.ecommerce.controller;
 
 import com.ssinfotech.ecommerce.dto.LoginRequest;
+import com.ssinfotech.ecommerce.dto.LoginResponse;
 import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.security.TokenService;
 import com.ssinfotech.ecommerce.service.UserService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +18,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenService tokenService;
+
     // User registration
     @PostMapping("/register")
     public User register(@RequestBody User user) {
@@ -28,6 +34,7 @@ public class UserController {
     }
 
     @PostMapping("/login")
+    @Timed("app.service")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
         User user = userService.findByEmail(loginRequest.getEmail());
 
@@ -40,7 +47,9 @@ public class UserController {
         // Do not return password in the response
         user.setPassword(null);
 
-        return ResponseEntity.ok(user);
+        // BCrypt is checked once here; later requests send the token as "Authorization: Bearer <token>"
+        TokenService.TokenClaims claims = tokenService.newClaims(user.getId(), user.getEmail(), user.getRole());
+        return ResponseEntity.ok(new LoginResponse(tokenService.issue(claims), claims.expiresAt(), user));
     }
 
 }
@@ -0,0 +1,61 @@
+package com.ssinfotech.ecommerce.dto;
+
+import java.util.List;
+
+public class BulkStatusUpdateResult {
+    public static final String UPDATED = "UPDATED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String FAILED = "FAILED";
+
+    private String status;
+    private int updated;
+    private int notFound;
+    private int failed;
+    private List<Item> results;
+    private boolean incomplete;     // a chunk failed; later orders were not attempted
+    private String error;           // why, when incomplete
+
+    public static class Item {
+        private Long orderId;
+        private String result;          // UPDATED, NOT_FOUND or FAILED
+        private String previousStatus;  // null unless updated
+
+        public Item() {}
+
+        public Item(Long orderId, String result, String previousStatus) {
+            this.orderId = orderId;
+            this.result = result;
+            this.previousStatus = previousStatus;
+        }
+
+        public Long getOrderId() { return orderId; }
+        public String getResult() { return result; }
+        public String getPreviousStatus() { return previousStatus; }
+    }
+
+    public BulkStatusUpdateResult() {}
+
+    public BulkStatusUpdateResult(String status, List<Item> results, String error) {
+        this.status = status;
+        this.results = results;
+        this.incomplete = error != null;
+        this.error = error;
+        for (Item item : results) {
+            if (UPDATED.equals(item.getResult())) {
+                updated++;
+            } else if (FAILED.equals(item.getResult())) {
+                failed++;
+            } else {
+                notFound++;
+            }
+        }
+    }
+
+    public String getStatus() { return status; }
+    public int getUpdated() { return updated; }
+    public int getNotFound() { return notFound; }
+    public int getFailed() { return failed; }
+    public List<Item> getResults() { return results; }
+    public boolean isIncomplete() { return incomplete; }
+    public String getError() { return error; }
+}
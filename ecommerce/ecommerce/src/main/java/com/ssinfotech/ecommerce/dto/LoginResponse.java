@@ -0,0 +1,48 @@
+package com.ssinfotech.ecommerce.dto;
+
+import com.ssinfotech.ecommerce.model.User;
+
+import java.time.Instant;
+
+public class LoginResponse {
+    private String token;
+    private String tokenType = "Bearer";
+    private Instant expiresAt;
+    private User user;
+
+    public LoginResponse() {}
+
+    public LoginResponse(String token, Instant expiresAt, User user) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+        this.user = user;
+    }
+
+    public String getToken() {
+        return token;
+    }
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public User getUser() {
+        return user;
+    }
+    public void setUser(User user) {
+        this.user = user;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ssinfotech.ecommerce.dto;
+
+import java.time.Instant;
+
+// Tracks an order accepted for asynchronous placement
+public class OrderHandle {
+    public static final String QUEUED = "QUEUED";
+    public static final String COMMITTED = "COMMITTED";
+    public static final String FAILED = "FAILED";
+
+    private String handle;
+    private String status;
+    private Long orderId;   // set once committed
+    private String error;   // set when placement failed
+    private Instant submittedAt;
+
+    public OrderHandle() {}
+
+    public OrderHandle(String handle, String status, Long orderId, String error, Instant submittedAt) {
+        this.handle = handle;
+        this.status = status;
+        this.orderId = orderId;
+        this.error = error;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getHandle() { return handle; }
+    public String getStatus() { return status; }
+    public Long getOrderId() { return orderId; }
+    public String getError() { return error; }
+    public Instant getSubmittedAt() { return submittedAt; }
+}
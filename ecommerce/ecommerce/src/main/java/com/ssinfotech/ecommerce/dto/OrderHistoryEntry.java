@@ -0,0 +1,89 @@
+package com.ssinfotech.ecommerce.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Read model for order listings (a user's history, the admin order list) and a newly placed order: order header plus its item lines
+public class OrderHistoryEntry {
+    private Long id;
+    private Long userId;
+    private String fullName;
+    private String phone;
+    private String addressLine1;
+    private String addressLine2;
+    private String city;
+    private String pincode;
+    private String state;
+    private String country;
+    private Double totalAmount;
+    private String orderStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<Line> items;
+
+    public static class Line {
+        private Long productId;
+        private String productName;
+        private Integer quantity;
+        private Double price;  // price at order time
+
+        public Line() {}
+
+        public Line(Long productId, String productName, Integer quantity, Double price) {
+            this.productId = productId;
+            this.productName = productName;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        public Long getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public Integer getQuantity() { return quantity; }
+        public Double getPrice() { return price; }
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getAddressLine1() { return addressLine1; }
+    public void setAddressLine1(String addressLine1) { this.addressLine1 = addressLine1; }
+
+    public String getAddressLine2() { return addressLine2; }
+    public void setAddressLine2(String addressLine2) { this.addressLine2 = addressLine2; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getPincode() { return pincode; }
+    public void setPincode(String pincode) { this.pincode = pincode; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public String getCountry() { return country; }
+    public void setCountry(String country) { this.country = country; }
+
+    public Double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+
+    public String getOrderStatus() { return orderStatus; }
+    public void setOrderStatus(String orderStatus) { this.orderStatus = orderStatus; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public List<Line> getItems() { return items; }
+    public void setItems(List<Line> items) { this.items = items; }
+}
@@ -0,0 +1,58 @@
+package com.ssinfotech.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+// Flat order header used for exports; built directly by JPQL so no entities are loaded
+public class OrderSummary {
+    private Long id;
+    private Long userId;
+    private String fullName;
+    private String phone;
+    private String addressLine1;
+    private String addressLine2;
+    private String city;
+    private String pincode;
+    private String state;
+    private String country;
+    private Double totalAmount;
+    private String orderStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public OrderSummary() {}
+
+    public OrderSummary(Long id, Long userId, String fullName, String phone,
+                        String addressLine1, String addressLine2, String city, String pincode,
+                        String state, String country, Double totalAmount, String orderStatus,
+                        LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.fullName = fullName;
+        this.phone = phone;
+        this.addressLine1 = addressLine1;
+        this.addressLine2 = addressLine2;
+        this.city = city;
+        this.pincode = pincode;
+        this.state = state;
+        this.country = country;
+        this.totalAmount = totalAmount;
+        this.orderStatus = orderStatus;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getFullName() { return fullName; }
+    public String getPhone() { return phone; }
+    public String getAddressLine1() { return addressLine1; }
+    public String getAddressLine2() { return addressLine2; }
+    public String getCity() { return city; }
+    public String getPincode() { return pincode; }
+    public String getState() { return state; }
+    public String getCountry() { return country; }
+    public Double getTotalAmount() { return totalAmount; }
+    public String getOrderStatus() { return orderStatus; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,65 @@
+package com.ssinfotech.ecommerce.dto;
+
+import java.util.List;
+
+// Filter counts for the storefront: products per category and per price range
+public class ProductFacets {
+    private String category;  // null when the counts cover the whole catalog
+    private long total;
+    private long inStock;
+    private List<CategoryCount> categories;
+    private List<PriceBucket> priceBuckets;
+
+    public static class CategoryCount {
+        private String category;
+        private long count;
+        private long inStock;
+
+        public CategoryCount() {}
+
+        public CategoryCount(String category, long count, long inStock) {
+            this.category = category;
+            this.count = count;
+            this.inStock = inStock;
+        }
+
+        public String getCategory() { return category; }
+        public long getCount() { return count; }
+        public long getInStock() { return inStock; }
+    }
+
+    public static class PriceBucket {
+        private Double min;  // null for the bucket of prices below the lowest configured bound
+        private Double max;  // null for the open-ended top bucket
+        private long count;
+
+        public PriceBucket() {}
+
+        public PriceBucket(Double min, Double max, long count) {
+            this.min = min;
+            this.max = max;
+            this.count = count;
+        }
+
+        public Double getMin() { return min; }
+        public Double getMax() { return max; }
+        public long getCount() { return count; }
+    }
+
+    public ProductFacets() {}
+
+    public ProductFacets(String category, long total, long inStock,
+                         List<CategoryCount> categories, List<PriceBucket> priceBuckets) {
+        this.category = category;
+        this.total = total;
+        this.inStock = inStock;
+        this.categories = categories;
+        this.priceBuckets = priceBuckets;
+    }
+
+    public String getCategory() { return category; }
+    public long getTotal() { return total; }
+    public long getInStock() { return inStock; }
+    public List<CategoryCount> getCategories() { return categories; }
+    public List<PriceBucket> getPriceBuckets() { return priceBuckets; }
+}
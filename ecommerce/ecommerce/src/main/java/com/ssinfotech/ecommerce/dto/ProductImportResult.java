@@ -0,0 +1,54 @@
+package com.ssinfotech.ecommerce.dto;
+
+import java.util.List;
+
+public class ProductImportResult {
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private boolean errorsTruncated;   // more rows failed than are listed in errors
+    private List<RowError> errors;
+    private boolean incomplete;        // the import stopped early; the counts cover the rows before that
+    private String error;              // why it stopped, when incomplete
+
+    public static class RowError {
+        private long line;      // line of the upload the row starts on
+        private String sku;     // null when the row has none or could not be read
+        private String message;
+
+        public RowError() {}
+
+        public RowError(long line, String sku, String message) {
+            this.line = line;
+            this.sku = sku;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getSku() { return sku; }
+        public String getMessage() { return message; }
+    }
+
+    public ProductImportResult() {}
+
+    public ProductImportResult(long rows, long inserted, long updated, long failed, List<RowError> errors, String error) {
+        this.rows = rows;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.failed = failed;
+        this.errors = errors;
+        this.errorsTruncated = failed > errors.size();
+        this.incomplete = error != null;
+        this.error = error;
+    }
+
+    public long getRows() { return rows; }
+    public long getInserted() { return inserted; }
+    public long getUpdated() { return updated; }
+    public long getFailed() { return failed; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public List<RowError> getErrors() { return errors; }
+    public boolean isIncomplete() { return incomplete; }
+    public String getError() { return error; }
+}
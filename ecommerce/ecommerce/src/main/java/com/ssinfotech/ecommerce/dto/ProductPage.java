@@ -0,0 +1,31 @@
+package com.ssinfotech.ecommerce.dto;
+
+import com.ssinfotech.ecommerce.model.Product;
+
+import java.util.List;
+
+public class ProductPage {
+    private List<Product> items;
+    private Long nextCursor;  // pass back as "after" to get the next page; null on the last page
+
+    public ProductPage() {}
+
+    public ProductPage(List<Product> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getItems() {
+        return items;
+    }
+    public void setItems(List<Product> items) {
+        this.items = items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ssinfotech.ecommerce.dto;
+
+import java.util.List;
+
+public class ProductSearchResult {
+    private String query;
+    private int total;
+    // True when the query's last word had too many completions to expand; total then counts the
+    // matches of its most common completions only
+    private boolean totalLowerBound;
+    private int page;
+    private int size;
+    private List<Hit> hits;
+
+    public static class Hit {
+        private Long id;
+        private String name;
+        private String category;
+        private Double price;
+        private double score;
+
+        public Hit() {}
+
+        public Hit(Long id, String name, String category, Double price, double score) {
+            this.id = id;
+            this.name = name;
+            this.category = category;
+            this.price = price;
+            this.score = score;
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public String getCategory() { return category; }
+        public Double getPrice() { return price; }
+        public double getScore() { return score; }
+    }
+
+    public ProductSearchResult() {}
+
+    public ProductSearchResult(String query, int total, int page, int size, List<Hit> hits) {
+        this(query, total, false, page, size, hits);
+    }
+
+    public ProductSearchResult(String query, int total, boolean totalLowerBound, int page, int size, List<Hit> hits) {
+        this.query = query;
+        this.total = total;
+        this.totalLowerBound = totalLowerBound;
+        this.page = page;
+        this.size = size;
+        this.hits = hits;
+    }
+
+    public String getQuery() { return query; }
+    public int getTotal() { return total; }
+    public boolean isTotalLowerBound() { return totalLowerBound; }
+    public int getPage() { return page; }
+    public int getSize() { return size; }
+    public List<Hit> getHits() { return hits; }
+}
@@ -0,0 +1,91 @@
+package com.ssinfotech.ecommerce.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Admin dashboard figures from the in-memory sales rollups; amounts are gross (orders of every status)
+public class SalesDashboard {
+    private long orders;
+    private double revenue;
+    private List<Day> daily;              // oldest first, one entry per day including days without orders
+    private List<Total> byStatus;
+    private List<Total> byCategory;
+    private List<ProductSales> topProducts;
+
+    public static class Day {
+        private LocalDate date;
+        private long orders;
+        private double revenue;
+
+        public Day() {}
+
+        public Day(LocalDate date, long orders, double revenue) {
+            this.date = date;
+            this.orders = orders;
+            this.revenue = revenue;
+        }
+
+        public LocalDate getDate() { return date; }
+        public long getOrders() { return orders; }
+        public double getRevenue() { return revenue; }
+    }
+
+    // Orders and amount per status; order lines, units and amount per category
+    public static class Total {
+        private String name;
+        private long orders;
+        private long units;
+        private double amount;
+
+        public Total() {}
+
+        public Total(String name, long orders, long units, double amount) {
+            this.name = name;
+            this.orders = orders;
+            this.units = units;
+            this.amount = amount;
+        }
+
+        public String getName() { return name; }
+        public long getOrders() { return orders; }
+        public long getUnits() { return units; }
+        public double getAmount() { return amount; }
+    }
+
+    public static class ProductSales {
+        private Long productId;
+        private long units;
+        private double revenue;
+
+        public ProductSales() {}
+
+        public ProductSales(Long productId, long units, double revenue) {
+            this.productId = productId;
+            this.units = units;
+            this.revenue = revenue;
+        }
+
+        public Long getProductId() { return productId; }
+        public long getUnits() { return units; }
+        public double getRevenue() { return revenue; }
+    }
+
+    public SalesDashboard() {}
+
+    public SalesDashboard(long orders, double revenue, List<Day> daily, List<Total> byStatus,
+                          List<Total> byCategory, List<ProductSales> topProducts) {
+        this.orders = orders;
+        this.revenue = revenue;
+        this.daily = daily;
+        this.byStatus = byStatus;
+        this.byCategory = byCategory;
+        this.topProducts = topProducts;
+    }
+
+    public long getOrders() { return orders; }
+    public double getRevenue() { return revenue; }
+    public List<Day> getDaily() { return daily; }
+    public List<Total> getByStatus() { return byStatus; }
+    public List<Total> getByCategory() { return byCategory; }
+    public List<ProductSales> getTopProducts() { return topProducts; }
+}
@@ -0,0 +1,65 @@
+package com.ssinfotech.ecommerce.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts SQL statements sent to the database, in total and per thread.
+ * A JDBC batch counts as one statement, since it is one round trip. Callers measure a unit of
+ * work by taking {@link #currentThreadCount()} before and after it, or by recording the
+ * statement text between {@link #startRecording()} and {@link #stopRecording()}.
+ */
+public class SqlStatementCounter implements MeterBinder {
+
+    private static final class ThreadStatements {
+        private long count;
+        private List<String> recorded;  // only while a recording is active
+    }
+
+    private final ThreadLocal<ThreadStatements> perThread = ThreadLocal.withInitial(ThreadStatements::new);
+    private final LongAdder total = new LongAdder();
+
+    // sql is null when the driver call does not carry the statement text (plain Statement batches)
+    public void increment(String sql) {
+        ThreadStatements statements = perThread.get();
+        statements.count++;
+        if (statements.recorded != null) {
+            statements.recorded.add(sql == null ? "<unknown>" : sql);
+        }
+        total.increment();
+    }
+
+    // Statements executed by the calling thread since it started
+    public long currentThreadCount() {
+        return perThread.get().count;
+    }
+
+    public long totalCount() {
+        return total.sum();
+    }
+
+    // Keep the text of every statement the calling thread executes from now on
+    public void startRecording() {
+        perThread.get().recorded = new ArrayList<>();
+    }
+
+    // Statements executed since startRecording(), in order; recording stops
+    public List<String> stopRecording() {
+        ThreadStatements statements = perThread.get();
+        List<String> recorded = statements.recorded == null ? List.of() : statements.recorded;
+        statements.recorded = null;
+        return recorded;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("db.statements", total, LongAdder::sum)
+                .description("SQL statements and batches executed")
+                .register(registry);
+    }
+}
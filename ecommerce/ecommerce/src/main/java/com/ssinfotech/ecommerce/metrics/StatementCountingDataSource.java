@@ -0,0 +1,73 @@
+package com.ssinfotech.ecommerce.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource that reports every statement execution to a {@link SqlStatementCounter}.
+ * Wrapping the DataSource sees Hibernate and JdbcTemplate statements alike.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private final SqlStatementCounter counter;
+
+    public StatementCountingDataSource(DataSource target, SqlStatementCounter counter) {
+        super(target);
+        this.counter = counter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    // createStatement, prepareStatement and prepareCall: count what the statement executes
+                    if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        String preparedSql = args != null && args.length > 0 && args[0] instanceof String sql ? sql : null;
+                        return counting(statement, method.getReturnType(), preparedSql);
+                    }
+                    return result;
+                });
+    }
+
+    private Object counting(Statement target, Class<?> statementType, String preparedSql) {
+        return Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[] {statementType},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        // Plain statements pass the SQL to execute(sql); prepared ones were given it up front
+                        String sql = preparedSql != null ? preparedSql
+                                : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        counter.increment(sql);
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package com.ssinfotech.ecommerce.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")  // second-level cache, see hibernate-cache.conf
+@Table(name = "product", indexes = @Index(name = "idx_product_sku", columnList = "sku", unique = true))
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
+    // Supplier stock-keeping unit; bulk imports upsert by it
+    @Column(length = 64)
+    private String sku;
+
     @Column(nullable = false, length = 255)
     private String name;
 
-    @Column(columnDefinition = "TEXT")
+    @Lob  // CLOB: DB2 has no TEXT type
     private String description;
 
     @Column(nullable = false)
@@ -49,6 +59,10 @@ public class Product {
         return id;
     }
 
+    public String getSku() {
+        return sku;
+    }
+
     public String getName() {
         return name;
     }
@@ -85,6 +99,10 @@ public class Product {
         this.id = id;
     }
 
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
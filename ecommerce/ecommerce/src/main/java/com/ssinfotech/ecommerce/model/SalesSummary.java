@@ -0,0 +1,81 @@
+package com.ssinfotech.ecommerce.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// One row of the persisted sales rollups, e.g. (DAY, 2025-03-14) or (PRODUCT, 42).
+// Written in bulk by SalesAnalytics; mapped here so the table is part of the schema.
+@Entity
+@Table(name = "sales_summary")
+@IdClass(SalesSummary.Key.class)
+public class SalesSummary {
+
+    public static final String DAY = "DAY";
+    public static final String STATUS = "STATUS";
+    public static final String PRODUCT = "PRODUCT";
+    public static final String CATEGORY = "CATEGORY";
+
+    @Id
+    @Column(length = 16)
+    private String dimension;
+
+    @Id
+    @Column(name = "dimension_key", length = 100)
+    private String dimensionKey;
+
+    @Column(nullable = false)
+    private Long orders;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public static class Key implements Serializable {
+        private String dimension;
+        private String dimensionKey;
+
+        public Key() {}
+
+        public Key(String dimension, String dimensionKey) {
+            this.dimension = dimension;
+            this.dimensionKey = dimensionKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key
+                    && Objects.equals(dimension, key.dimension)
+                    && Objects.equals(dimensionKey, key.dimensionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dimension, dimensionKey);
+        }
+    }
+
+    public String getDimension() { return dimension; }
+    public void setDimension(String dimension) { this.dimension = dimension; }
+
+    public String getDimensionKey() { return dimensionKey; }
+    public void setDimensionKey(String dimensionKey) { this.dimensionKey = dimensionKey; }
+
+    public Long getOrders() { return orders; }
+    public void setOrders(Long orders) { this.orders = orders; }
+
+    public Long getUnits() { return units; }
+    public void setUnits(Long units) { this.units = units; }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
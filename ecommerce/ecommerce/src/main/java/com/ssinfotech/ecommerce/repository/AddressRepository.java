@@ -2,9 +2,14 @@ package com.ssinfotech.ecommerce.repository;
 
 import com.ssinfotech.ecommerce.model.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface AddressRepository extends JpaRepository<Address, Long> {
-    List<Address> findByUserId(Long userId);
+
+    // Filters on the user_id column rather than on a join to user, so idx_address_user applies
+    @Query("SELECT a FROM Address a WHERE a.user.id = :userId")
+    List<Address> findByUserId(@Param("userId") Long userId);
 }
@@ -2,8 +2,23 @@ package com.ssinfotech.ecommerce.repository;
 
 import com.ssinfotech.ecommerce.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-    // Additional query methods if needed
-}
 
+    // Order lines, units sold and revenue per product, for the sales analytics backfill
+    interface ProductTotals {
+        Long getProductId();
+        String getCategory();
+        Long getLines();
+        Long getUnits();
+        Double getAmount();
+    }
+
+    @Query("SELECT p.id AS productId, p.category AS category, count(i) AS lines, sum(i.quantity) AS units, " +
+            "sum(i.quantity * i.price) AS amount " +
+            "FROM OrderItem i JOIN i.product p GROUP BY p.id, p.category")
+    List<ProductTotals> productTotals();
+}
@@ -1,11 +1,79 @@
 package com.ssinfotech.ecommerce.repository;
 
 import com.ssinfotech.ecommerce.model.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    // Custom method to find all orders placed by a particular user
-    List<Order> findByUserId(Long userId);
-}
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+    // Custom method to find all orders placed by a particular user.
+    // Filters on the user_id column; the derived query joined user and filtered there, which scans orders.
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId")
+    List<Order> findByUserId(@Param("userId") Long userId);
+
+    // Order history with items and their products fetched in the same query, newest first
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
+    List<Order> findWithItemsByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
+
+    // All orders with items and products, newest first (admin order list)
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    List<Order> findAllWithItemsByOrderByCreatedAtDesc();
+
+    // streamSummaries (admin export) and lockStatusesWhere take optional filters: see OrderRepositoryCustom
+
+    // Id, current status and total of an order, for bulk status changes
+    interface StatusView {
+        Long getId();
+        String getOrderStatus();
+        Double getTotalAmount();
+    }
+
+    // Load one order and lock its row until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
 
+    // Lock the given orders and return their current status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS id, o.orderStatus AS orderStatus, o.totalAmount AS totalAmount FROM Order o WHERE o.id IN :ids")
+    List<StatusView> lockStatuses(@Param("ids") Collection<Long> ids);
+
+    // Set-based status change; updatedAt is set in the same statement
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = :status, o.updatedAt = :updatedAt WHERE o.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") String status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Order count and revenue per day and per status, for the sales analytics backfill
+    interface DailyTotals {
+        LocalDate getOrderDate();
+        Long getOrders();
+        Double getAmount();
+    }
+
+    interface StatusTotals {
+        String getOrderStatus();
+        Long getOrders();
+        Double getAmount();
+    }
+
+    @Query("SELECT cast(o.createdAt AS LocalDate) AS orderDate, count(o) AS orders, sum(o.totalAmount) AS amount " +
+            "FROM Order o GROUP BY cast(o.createdAt AS LocalDate)")
+    List<DailyTotals> dailyTotals();
+
+    @Query("SELECT o.orderStatus AS orderStatus, count(o) AS orders, sum(o.totalAmount) AS amount " +
+            "FROM Order o GROUP BY o.orderStatus")
+    List<StatusTotals> statusTotals();
+}
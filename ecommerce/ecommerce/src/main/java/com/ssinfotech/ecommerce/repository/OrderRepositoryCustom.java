@@ -0,0 +1,20 @@
+package com.ssinfotech.ecommerce.repository;
+
+import com.ssinfotech.ecommerce.dto.OrderSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Order queries with optional filters, built with only the filters given (see OrderRepositoryImpl)
+public interface OrderRepositoryCustom {
+
+    // Forward-only stream of order headers for exports, by id; must be consumed inside a transaction.
+    // Null arguments are not filtered on.
+    Stream<OrderSummary> streamSummaries(LocalDateTime from, LocalDateTime to, String status);
+
+    // Lock the next chunk of orders (by id) in a status, optionally only those created before a time,
+    // and return their current status
+    List<OrderRepository.StatusView> lockStatusesWhere(String status, LocalDateTime createdBefore, long afterId,
+                                                       int limit);
+}
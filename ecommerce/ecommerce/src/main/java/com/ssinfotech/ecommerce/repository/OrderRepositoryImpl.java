@@ -0,0 +1,86 @@
+package com.ssinfotech.ecommerce.repository;
+
+import com.ssinfotech.ecommerce.dto.OrderSummary;
+import com.ssinfotech.ecommerce.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Criteria queries for {@link OrderRepositoryCustom}. A filter that was not given is left out of
+ * the WHERE clause instead of being written as "(:x IS NULL OR ...)", which the database has to
+ * plan for both cases and so cannot use an index on x for.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // A row of lockStatusesWhere
+    private record LockedStatus(Long id, String orderStatus, Double totalAmount) implements OrderRepository.StatusView {
+        @Override
+        public Long getId() { return id; }
+        @Override
+        public String getOrderStatus() { return orderStatus; }
+        @Override
+        public Double getTotalAmount() { return totalAmount; }
+    }
+
+    @Override
+    public Stream<OrderSummary> streamSummaries(LocalDateTime from, LocalDateTime to, String status) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummary> query = cb.createQuery(OrderSummary.class);
+        Root<Order> o = query.from(Order.class);
+        List<Predicate> where = new ArrayList<>();
+        if (from != null) {
+            where.add(cb.greaterThanOrEqualTo(o.get("createdAt"), from));
+        }
+        if (to != null) {
+            where.add(cb.lessThan(o.get("createdAt"), to));
+        }
+        if (status != null) {
+            where.add(cb.equal(o.get("orderStatus"), status));
+        }
+        query.select(cb.construct(OrderSummary.class,
+                        o.get("id"), o.get("user").get("id"), o.get("fullName"), o.get("phone"),
+                        o.get("addressLine1"), o.get("addressLine2"), o.get("city"), o.get("pincode"),
+                        o.get("state"), o.get("country"), o.get("totalAmount"), o.get("orderStatus"),
+                        o.get("createdAt"), o.get("updatedAt")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.asc(o.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                .getResultStream();
+    }
+
+    @Override
+    public List<OrderRepository.StatusView> lockStatusesWhere(String status, LocalDateTime createdBefore, long afterId,
+                                                              int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LockedStatus> query = cb.createQuery(LockedStatus.class);
+        Root<Order> o = query.from(Order.class);
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(o.get("orderStatus"), status));
+        if (createdBefore != null) {
+            where.add(cb.lessThan(o.get("createdAt"), createdBefore));
+        }
+        where.add(cb.greaterThan(o.get("id"), afterId));
+        query.select(cb.construct(LockedStatus.class, o.get("id"), o.get("orderStatus"), o.get("totalAmount")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.asc(o.get("id")));
+        return new ArrayList<>(entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+}
@@ -1,8 +1,36 @@
 package com.ssinfotech.ecommerce.repository;
 
 import com.ssinfotech.ecommerce.model.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    // Custom query methods can be added here if needed in the future
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    // Keyset page filter: products after the given id, plus only the filters that were given.
+    // Built as a specification rather than with optional "(:x IS NULL OR ...)" conditions, which keep
+    // the database from using idx_product_category_id; sort by id and limit when querying.
+    static Specification<Product> pageAfter(long afterId, String category, Double minPrice, Double maxPrice) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (category != null) {
+                predicates.add(cb.equal(root.get("category"), category));
+            }
+            predicates.add(cb.greaterThan(root.get("id"), afterId));
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    List<Product> findBySkuIn(Collection<String> skus);
 }
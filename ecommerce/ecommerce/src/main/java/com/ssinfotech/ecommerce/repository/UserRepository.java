@@ -1,9 +1,15 @@
 package com.ssinfotech.ecommerce.repository;
 
 import com.ssinfotech.ecommerce.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Login and token authentication look users up by email; the query cache keeps the id and the
+    // user region the row, both invalidated by Hibernate when a user is saved
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     User findByEmail(String email);
 }
-
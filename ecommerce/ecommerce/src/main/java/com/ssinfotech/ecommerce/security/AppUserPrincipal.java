@@ -0,0 +1,57 @@
+package com.ssinfotech.ecommerce.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal carrying the user's id and role, so controllers
+ * don't need to look the user up again by email.
+ * Deliberately not a CredentialsContainer: instances are cached and must keep their password hash.
+ */
+public class AppUserPrincipal implements UserDetails {
+
+    // Role of accounts stored without one, as for users registered through UserService
+    private static final String DEFAULT_ROLE = "USER";
+
+    private final Long userId;
+    private final String email;
+    private final String password;
+    private final String role;
+    private final List<GrantedAuthority> authorities;
+
+    public AppUserPrincipal(Long userId, String email, String password, String role) {
+        this.userId = userId;
+        this.email = email;
+        this.password = password;
+        this.role = role == null || role.isBlank() ? DEFAULT_ROLE : role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + this.role));
+    }
+
+    // Null for built-in accounts that have no row in the user table
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ssinfotech.ecommerce.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads users from the user table by email and keeps recently used principals in a bounded cache.
+ * Built-in accounts (the bootstrap admin) take precedence over the user table, so a database user
+ * registered under the same name cannot take one over; their usernames are reserved.
+ */
+public class DatabaseUserDetailsService implements UserDetailsService, MeterBinder {
+
+    private final UserRepository userRepository;
+    private final Map<String, AppUserPrincipal> builtInAccounts;
+    private final Cache<String, AppUserPrincipal> principals;
+    // Bumped by every eviction, so a load that overlapped one does not cache the old role or password
+    private final AtomicLong evictions = new AtomicLong();
+
+    public DatabaseUserDetailsService(UserRepository userRepository, List<AppUserPrincipal> builtInAccounts,
+                                      long maximumSize, Duration ttl) {
+        this.userRepository = userRepository;
+        this.builtInAccounts = builtInAccounts.stream()
+                .collect(Collectors.toUnmodifiableMap(AppUserPrincipal::getUsername, Function.identity()));
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public AppUserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Loaded outside the cache's compute so the query never runs while holding a monitor
+        AppUserPrincipal principal = principals.getIfPresent(username);
+        if (principal == null) {
+            long generation = evictions.get();
+            principal = load(username);
+            if (principal == null) {
+                throw new UsernameNotFoundException("User not found: " + username);
+            }
+            if (evictions.get() == generation) {
+                principals.put(username, principal);
+                // An eviction that ran before the put could not remove it
+                if (evictions.get() != generation) {
+                    principals.invalidate(username);
+                }
+            }
+        }
+        return principal;
+    }
+
+    // Whether the username belongs to a built-in account, ignoring case
+    public boolean isReserved(String username) {
+        return username != null && builtInAccounts.keySet().stream().anyMatch(name -> name.equalsIgnoreCase(username));
+    }
+
+    // Drop a cached principal after the user's password or role changes
+    public void evict(String username) {
+        evictions.incrementAndGet();
+        principals.invalidate(username);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, principals, "security.principals");
+    }
+
+    private AppUserPrincipal load(String username) {
+        AppUserPrincipal builtIn = builtInAccounts.get(username);
+        if (builtIn != null) {
+            return builtIn;
+        }
+        User user = userRepository.findByEmail(username);
+        return user == null ? null
+                : new AppUserPrincipal(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
+    }
+}
@@ -0,0 +1,115 @@
+package com.ssinfotech.ecommerce.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless access tokens.
+ * A token is base64url(payload) + "." + base64url(HMAC-SHA256(payload)), where the payload
+ * carries the user id, email, role and expiry. Verifying it costs one HMAC, not a BCrypt check.
+ */
+@Component
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "v1";
+    // The HMAC-SHA256 output size; a shorter key is easier to brute-force than the signature
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public TokenService(@Value("${security.token.secret:}") String secret,
+                        @Value("${security.token.ttl:8h}") Duration ttl) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            // Tokens will not survive a restart or work across instances without a configured secret
+            log.warn("security.token.secret is not set; using a random key for this instance");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new RuntimeException("security.token.secret must be at least " + MIN_SECRET_BYTES
+                        + " bytes, but is " + keyBytes.length);
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = ttl;
+    }
+
+    // Claims carried by a token
+    public record TokenClaims(Long userId, String email, String role, Instant expiresAt) {}
+
+    public TokenClaims newClaims(Long userId, String email, String role) {
+        return new TokenClaims(userId, email, role, Instant.now().plus(ttl).truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    public String issue(TokenClaims claims) {
+        String payload = String.join("\n",
+                VERSION,
+                claims.userId() == null ? "" : claims.userId().toString(),
+                claims.email(),
+                claims.role() == null ? "" : claims.role(),
+                Long.toString(claims.expiresAt().getEpochSecond()));
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    // Returns the claims of a well-formed, correctly signed and unexpired token
+    public Optional<TokenClaims> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payloadBytes))) {
+                return Optional.empty();
+            }
+            String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split("\n", -1);
+            if (fields.length != 5 || !VERSION.equals(fields[0])) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[4]));
+            if (!expiresAt.isAfter(Instant.now())) {
+                return Optional.empty();
+            }
+            Long userId = fields[1].isEmpty() ? null : Long.valueOf(fields[1]);
+            String role = fields[3].isEmpty() ? null : fields[3];
+            return Optional.of(new TokenClaims(userId, fields[2], role, expiresAt));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or number
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot compute token signature", e);
+        }
+    }
+}
@@ -1,31 +1,40 @@
 package com.ssinfotech.ecommerce.service;
 
+import com.ssinfotech.ecommerce.config.ReadYourWritesTracker;
 import com.ssinfotech.ecommerce.model.Address;
 import com.ssinfotech.ecommerce.model.User;
 import com.ssinfotech.ecommerce.repository.AddressRepository;
 import com.ssinfotech.ecommerce.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
+@Timed("app.service")
 public class AddressService {
 
     @Autowired
     private AddressRepository addressRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
 
     // Add a new address for a given user
     public Address addAddress(Long userId, Address address) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         address.setUser(user);
-        return addressRepository.save(address);
+        Address saved = addressRepository.save(address);
+        readYourWrites.recordWrite(userId);
+        return saved;
     }
 
     // Get all addresses for a user
+    @Transactional(readOnly = true)
     public List<Address> getAddressesByUserId(Long userId) {
         return addressRepository.findByUserId(userId);
     }
@@ -44,7 +53,9 @@ public class AddressService {
         address.setCountry(newData.getCountry());
         address.setAddressType(newData.getAddressType());
         address.setIsDefault(newData.getIsDefault());
-        return addressRepository.save(address);
+        Address saved = addressRepository.save(address);
+        readYourWrites.recordWrite(address.getUser().getId());
+        return saved;
     }
 
     // Delete an address
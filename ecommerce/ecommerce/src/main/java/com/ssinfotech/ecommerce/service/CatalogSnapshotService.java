@@ -0,0 +1,214 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The full catalog and each category slice as ready-to-send JSON bytes (and gzip bytes),
+ * so GET /api/products costs no serialization. Product writes and stock reservations schedule
+ * a background rebuild, one per rebuild delay however many writes arrive (a bulk import, say).
+ * A reader that finds the snapshot behind a product save or delete rebuilds it first, so product
+ * data is never older than the last committed write. Stock reservations, which arrive with every
+ * order, do not make readers wait: they get the previous snapshot until the background rebuild
+ * replaces it, so quantities lag by up to the rebuild delay. Each entry carries the ETag of the
+ * data it was built from. Holds roughly twice the catalog JSON in memory.
+ */
+@Component
+public class CatalogSnapshotService implements ProductChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private static final byte[] EMPTY_JSON = "[]".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EMPTY_GZIP = gzip(EMPTY_JSON);
+
+    private final ProductRepository productRepository;
+    private final ProductCatalogCache productCache;
+    private final ProductVersionIndex versionIndex;
+    private final ObjectMapper objectMapper;
+    private final boolean gzip;
+    private final Duration rebuildDelay;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Snapshot current;
+
+    public CatalogSnapshotService(ProductRepository productRepository,
+                                  ProductCatalogCache productCache,
+                                  ProductVersionIndex versionIndex,
+                                  ObjectMapper objectMapper,
+                                  @Value("${catalog.snapshot.gzip:true}") boolean gzip,
+                                  @Value("${catalog.snapshot.rebuild-delay:1s}") Duration rebuildDelay) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.versionIndex = versionIndex;
+        this.objectMapper = objectMapper;
+        this.gzip = gzip;
+        this.rebuildDelay = rebuildDelay;
+    }
+
+    // One serialized response. eTag is null while the version index is still being built; gzip is null when disabled.
+    public record Entry(byte[] json, byte[] gzip, String eTag, long lastModifiedMillis) {}
+
+    // noCategory answers every category without products
+    private record Snapshot(long version, long writeVersion, Entry all, Map<String, Entry> byCategory, Entry noCategory) {}
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        scheduleRebuild();
+    }
+
+    @Override
+    public void productsSaved(List<Product> products) {
+        scheduleRebuild();
+    }
+
+    @Override
+    public void productDeleted(Long productId) {
+        scheduleRebuild();
+    }
+
+    @Override
+    public void stockReserved(Long productId, int quantity, int remaining, LocalDateTime updatedAt) {
+        scheduleRebuild();
+    }
+
+    // The full catalog, or the products of one category (an empty array for unknown categories)
+    public Entry catalog(String category) {
+        Snapshot snapshot = current();
+        if (category == null) {
+            return snapshot.all();
+        }
+        return snapshot.byCategory().getOrDefault(category, snapshot.noCategory());
+    }
+
+    // Rebuilds on the caller's thread only after a product write; stock-only changes are left to the background rebuild
+    private Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.writeVersion() == versionIndex.writeVersion()) {
+            return snapshot;
+        }
+        rebuildLock.lock();
+        try {
+            snapshot = current;
+            if (snapshot == null || snapshot.writeVersion() != versionIndex.writeVersion()) {
+                snapshot = build();
+                current = snapshot;
+            }
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            Snapshot snapshot = current;
+            if (snapshot == null || snapshot.version() != versionIndex.version()) {
+                current = build();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Coalesces the writes of one rebuild delay into one background rebuild
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Catalog snapshot rebuild failed; the next change will retry", e);
+                }
+            }, rebuildDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Caller holds rebuildLock. Version and validators are read before the products, so they are never newer than the data.
+    private Snapshot build() {
+        long version = versionIndex.version();
+        long writeVersion = versionIndex.writeVersion();
+        Optional<ProductVersionIndex.Validators> validators = versionIndex.catalog();
+        String eTag = validators.map(ProductVersionIndex.Validators::eTag).orElse(null);
+        long lastModified = validators.map(ProductVersionIndex.Validators::lastModifiedMillis).orElse(0L);
+
+        List<Product> products = productCache.getAllProducts(productRepository::findAll);
+        Map<String, List<Product>> byCategory = new HashMap<>();
+        for (Product product : products) {
+            if (product.getCategory() != null) {
+                byCategory.computeIfAbsent(product.getCategory(), c -> new ArrayList<>()).add(product);
+            }
+        }
+
+        Map<String, Entry> categoryEntries = new HashMap<>();
+        byCategory.forEach((category, slice) ->
+                categoryEntries.put(category, entry(slice, categoryETag(eTag, category), lastModified)));
+        Entry noCategory = new Entry(EMPTY_JSON, gzip ? EMPTY_GZIP : null, categoryETag(eTag, ""), lastModified);
+        return new Snapshot(version, writeVersion, entry(products, eTag, lastModified), Map.copyOf(categoryEntries), noCategory);
+    }
+
+    private Entry entry(List<Product> products, String eTag, long lastModified) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            return new Entry(json, gzip ? gzip(json) : null, eTag, lastModified);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Derived from the catalog ETag, so a slice revalidates as changed whenever the catalog changes
+    private static String categoryETag(String catalogETag, String category) {
+        if (catalogETag == null) {
+            return null;
+        }
+        String tag = catalogETag.substring(1, catalogETag.length() - 1);
+        return "\"" + tag + "-k" + Integer.toHexString(category.hashCode()) + "\"";
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,145 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Responses of requests sent with an Idempotency-Key, per user and key, bounded in size and
+ * evicted after the TTL. The first request with a key runs; a retry gets the stored response
+ * back without running again, and a duplicate that arrives while the first is still running
+ * waits for its result. Only successful (2xx) responses are kept or replayed: after a failure
+ * nothing was written, so the next retry runs again, and so does a duplicate that was waiting.
+ * Reusing a key for a different request is rejected. A request still running is neither
+ * counted against the size bound nor expired, so its duplicates always find it.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<Key, Entry> entries;
+    private final Duration waitTimeout;
+
+    public IdempotencyStore(@Value("${orders.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${orders.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${orders.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        // Running entries weigh nothing and never expire; they are re-put once their response is stored
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .weigher((Key id, Entry entry) -> entry.response().isDone() ? 1 : 0)
+                .expireAfter(Expiry.writing((Key id, Entry entry) ->
+                        entry.response().isDone() ? ttl : ChronoUnit.FOREVER.getDuration()))
+                .recordStats()
+                .build();
+        this.waitTimeout = waitTimeout;
+    }
+
+    // A response as sent: status, headers and the serialized body
+    public record StoredResponse(int status, HttpHeaders headers, byte[] body) {}
+
+    public record Outcome(StoredResponse response, boolean replayed) {}
+
+    private record Key(Long userId, String key) {}
+
+    // fingerprint identifies the request body, so a reused key with different content is caught
+    private record Entry(String fingerprint, CompletableFuture<StoredResponse> response) {}
+
+    /**
+     * Run the action once per (user, key). Returns the action's response, the stored 2xx one for a
+     * replay, 422 when the key was used for a different request, or 409 when the first request
+     * is still running after the wait timeout.
+     */
+    public Outcome execute(Long userId, String key, String fingerprint, Supplier<StoredResponse> action) {
+        Key id = new Key(userId, key);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+            Entry existing = entries.asMap().putIfAbsent(id, mine);
+            if (existing == null) {
+                return new Outcome(run(id, mine, action), false);
+            }
+
+            if (!existing.fingerprint().equals(fingerprint)) {
+                return new Outcome(text(HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER + " was already used for a different request"), false);
+            }
+            StoredResponse response;
+            try {
+                response = existing.response().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return new Outcome(text(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed"), false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Outcome(text(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed"), false);
+            } catch (ExecutionException e) {
+                // The first request threw and left nothing behind; this one runs instead
+                continue;
+            }
+            if (isSuccess(response)) {
+                return new Outcome(response, true);
+            }
+            // The first request failed and was not kept; the duplicate is a retry and runs itself
+        }
+    }
+
+    // A failed entry is removed before its waiters are woken, so they do not find it again
+    private StoredResponse run(Key id, Entry mine, Supplier<StoredResponse> action) {
+        StoredResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            entries.asMap().remove(id, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+        if (isSuccess(response)) {
+            mine.response().complete(response);
+            entries.asMap().replace(id, mine, new Entry(mine.fingerprint(), mine.response()));
+        } else {
+            entries.asMap().remove(id, mine);
+            mine.response().complete(response);
+        }
+        return response;
+    }
+
+    private static boolean isSuccess(StoredResponse response) {
+        return response.status() / 100 == 2;
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    // Stored responses and evictions as cache.* meters
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "orders.idempotency");
+    }
+
+    private static StoredResponse text(HttpStatus status, String message) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        return new StoredResponse(status.value(), HttpHeaders.readOnlyHttpHeaders(headers),
+                message.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,125 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Reserves stock for orders with conditional UPDATEs, so concurrent buyers can never oversell.
+ * All lines of an order are sent as one JDBC batch, in ascending product id order, so two
+ * orders touching the same products always lock the rows in the same order.
+ */
+@Service
+public class InventoryService {
+
+    private static final String RESERVE_SQL =
+            "UPDATE product SET quantity = quantity - ?, updated_at = ? WHERE id = ? AND quantity >= ?";
+    private static final String REMAINING_SQL = "SELECT id, quantity FROM product WHERE id IN (%s)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductCatalogCache productCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private List<ProductChangeListener> changeListeners;
+
+    // Decrement stock for every product in the map (product id -> quantity).
+    // Runs in the caller's transaction: if any product is short, the whole order rolls back.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> ordered = new TreeMap<>(quantities);
+        for (Map.Entry<Long, Integer> line : ordered.entrySet()) {
+            if (line.getValue() == null || line.getValue() <= 0) {
+                throw new RuntimeException("Invalid quantity for product " + line.getKey());
+            }
+        }
+
+        LocalDateTime updatedAt = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(updatedAt);
+        List<Object[]> args = new ArrayList<>(ordered.size());
+        for (Map.Entry<Long, Integer> line : ordered.entrySet()) {
+            args.add(new Object[] {line.getValue(), now, line.getKey(), line.getValue()});
+        }
+        lockCachedProducts(ordered.keySet());
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, args);
+
+        List<Long> shortProducts = new ArrayList<>();
+        int i = 0;
+        for (Long productId : ordered.keySet()) {
+            if (updated[i++] == 0) {
+                shortProducts.add(productId);
+            }
+        }
+        if (!shortProducts.isEmpty()) {
+            throw new RuntimeException("Insufficient stock for products: " + shortProducts);
+        }
+
+        // The UPDATE holds the row locks until commit, so this is the stock the order leaves behind
+        Map<Long, Integer> remaining = new HashMap<>();
+        jdbcTemplate.query(String.format(REMAINING_SQL, String.join(",", Collections.nCopies(ordered.size(), "?"))),
+                rs -> { remaining.put(rs.getLong(1), rs.getInt(2)); }, ordered.keySet().toArray());
+
+        // Cached products and in-memory views show the old quantity until the order commits
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ordered.forEach((productId, quantity) -> {
+                    productCache.invalidate(productId);
+                    changeListeners.forEach(listener ->
+                            listener.stockReserved(productId, quantity, remaining.get(productId), updatedAt));
+                });
+            }
+        });
+    }
+
+    // The UPDATE bypasses Hibernate, so take the same second-level cache locks Hibernate takes for
+    // its own updates: until the transaction completes the products are read from the database, and
+    // loads that started before then cannot put the old quantity back into the cache.
+    private void lockCachedProducts(Collection<Long> productIds) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Product.class);
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        Map<Object, SoftLock> locks = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            Object key = cache.generateCacheKey(productId, persister, session.getFactory(), session.getTenantIdentifier());
+            locks.put(key, cache.lockItem(session, key, null));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locks.forEach((key, lock) -> cache.unlockItem(session, key, lock));
+            }
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ssinfotech.ecommerce.dto.OrderHandle;
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order placement with group commit.
+ * Requests are validated and put on a bounded queue; a single writer thread drains it and
+ * places up to batchSize orders per transaction. If a batch fails (for example one order is
+ * out of stock), its orders are retried one per transaction so the others still go through.
+ * Queued orders live only in memory until committed; clients poll the handle for the outcome.
+ * Handles of queued orders are kept until the order completes; only outcomes expire.
+ */
+@Component
+public class OrderIngestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIngestionQueue.class);
+
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingOrder> queue;
+    private final int batchSize;
+    private final Duration linger;
+    private final Duration offerTimeout;
+    // Queued or being placed: never evicted, and at most the queue capacity plus one batch
+    private final ConcurrentMap<String, TrackedOrder> inFlight = new ConcurrentHashMap<>();
+    // Committed or failed, kept for polling until they expire
+    private final Cache<String, TrackedOrder> completed;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    private record PendingOrder(String handle, Long userId, Order order, List<OrderItem> items) {}
+
+    private record TrackedOrder(Long userId, OrderHandle handle) {}
+
+    public OrderIngestionQueue(OrderService orderService,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${orders.async.queue-capacity:10000}") int capacity,
+                               @Value("${orders.async.batch-size:100}") int batchSize,
+                               @Value("${orders.async.linger:5ms}") Duration linger,
+                               @Value("${orders.async.offer-timeout:100ms}") Duration offerTimeout,
+                               @Value("${orders.async.status-ttl:1h}") Duration statusTtl) {
+        this.orderService = orderService;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.offerTimeout = offerTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(capacity * 10L)
+                .expireAfterWrite(statusTtl)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::drainLoop, "order-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stop accepting work and let the writer commit what is already queued
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Validate and queue an order. Returns empty when the queue stays full for the offer timeout,
+     * which callers should report as "try again later".
+     */
+    public Optional<OrderHandle> submit(Long userId, Order order, List<OrderItem> items) throws InterruptedException {
+        orderService.validateOrderRequest(order, items);
+        if (!running) {
+            return Optional.empty();
+        }
+        String handle = UUID.randomUUID().toString();
+        OrderHandle queued = new OrderHandle(handle, OrderHandle.QUEUED, null, null, Instant.now());
+        inFlight.put(handle, new TrackedOrder(userId, queued));
+        boolean offered = false;
+        try {
+            offered = queue.offer(new PendingOrder(handle, userId, order, items), offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            if (!offered) {
+                inFlight.remove(handle);
+            }
+        }
+        return offered ? Optional.of(queued) : Optional.empty();
+    }
+
+    // Current state of a handle, visible only to the user who submitted it
+    public Optional<OrderHandle> status(Long userId, String handle) {
+        // In-flight first: a completing order is added to completed before it leaves inFlight
+        TrackedOrder tracked = inFlight.get(handle);
+        if (tracked == null) {
+            tracked = completed.getIfPresent(handle);
+        }
+        if (tracked == null || !tracked.userId().equals(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(tracked.handle());
+    }
+
+    public int queuedCount() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Wait briefly for more orders so a burst shares one commit
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order ingestion batch failed", e);
+                // Whatever did not complete will not be retried; don't leave it queued forever
+                batch.stream().filter(pending -> inFlight.containsKey(pending.handle()))
+                        .forEach(pending -> complete(pending, null, "Order ingestion failed"));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        List<Long> orderIds;
+        try {
+            orderIds = transactionTemplate.execute(tx -> batch.stream()
+                    .map(pending -> orderService.placeOrder(pending.userId(), pending.order(), pending.items()).getId())
+                    .toList());
+        } catch (RuntimeException batchFailure) {
+            // One bad order rolls back the whole batch; place each on its own so the rest still commit
+            log.debug("Batch of {} orders failed, retrying individually: {}", batch.size(), batchFailure.getMessage());
+            for (PendingOrder pending : batch) {
+                clearGeneratedIds(pending);
+                try {
+                    Order saved = orderService.placeOrder(pending.userId(), pending.order(), pending.items());
+                    complete(pending, saved.getId(), null);
+                } catch (RuntimeException e) {
+                    complete(pending, null, e.getMessage());
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), orderIds.get(i), null);
+        }
+    }
+
+    // Ids assigned inside a rolled-back transaction must not be reused
+    private static void clearGeneratedIds(PendingOrder pending) {
+        pending.order().setId(null);
+        pending.items().forEach(item -> item.setId(null));
+    }
+
+    private void complete(PendingOrder pending, Long orderId, String error) {
+        TrackedOrder tracked = inFlight.get(pending.handle());
+        Instant submittedAt = tracked == null ? null : tracked.handle().getSubmittedAt();
+        String status = error == null ? OrderHandle.COMMITTED : OrderHandle.FAILED;
+        completed.put(pending.handle(), new TrackedOrder(pending.userId(),
+                new OrderHandle(pending.handle(), status, orderId, error, submittedAt)));
+        inFlight.remove(pending.handle());
+    }
+}
@@ -1,5 +1,9 @@
 package com.ssinfotech.ecommerce.service;
 
+import com.ssinfotech.ecommerce.config.ReadYourWritesTracker;
+import com.ssinfotech.ecommerce.dto.BulkStatusUpdateResult;
+import com.ssinfotech.ecommerce.dto.OrderHistoryEntry;
+import com.ssinfotech.ecommerce.dto.OrderSummary;
 import com.ssinfotech.ecommerce.model.Order;
 import com.ssinfotech.ecommerce.model.OrderItem;
 import com.ssinfotech.ecommerce.model.Product;
@@ -7,34 +11,83 @@ import com.ssinfotech.ecommerce.model.User;
 import com.ssinfotech.ecommerce.repository.OrderRepository;
 import com.ssinfotech.ecommerce.repository.UserRepository;
 import com.ssinfotech.ecommerce.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("app.service")
 public class OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    // Orders changed per transaction by bulk status updates
+    public static final int STATUS_UPDATE_CHUNK_SIZE = 500;
+
     @Autowired
     private OrderRepository orderRepository;
     @Autowired
     private UserRepository userRepository;
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
 
     // 1. Place order (with address snapshot, items list, userId)
+    @Transactional
     public Order placeOrder(Long userId, Order order, List<OrderItem> orderItems) {
+        validateOrderRequest(order, orderItems);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         order.setUser(user);
 
-        // Associate items to the order and set price from products
+        // Resolve every product in the order with a single query
+        Set<Long> productIds = new LinkedHashSet<>();
         for (OrderItem item : orderItems) {
-            Product product = productRepository.findById(item.getProduct().getId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            productIds.add(item.getProduct().getId());
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getId(), product);
+        }
+        if (products.size() != productIds.size()) {
+            List<Long> missing = productIds.stream()
+                    .filter(id -> !products.containsKey(id))
+                    .toList();
+            throw new RuntimeException("Products not found: " + missing);
+        }
+
+        // Associate items to the order and snapshot the current price from products
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : orderItems) {
+            Product product = products.get(item.getProduct().getId());
             item.setOrder(order);
+            item.setProduct(product);
             item.setPrice(product.getPrice());
+            quantities.merge(product.getId(), item.getQuantity(), Integer::sum);
         }
         order.setOrderItems(orderItems);
 
@@ -45,27 +98,197 @@ public class OrderService {
         order.setTotalAmount(total);
         order.setOrderStatus("PENDING"); // initial status
 
-        return orderRepository.save(order);
+        // Write the order first and reserve stock last, so product rows stay locked
+        // only for the short time between the reservation and the commit
+        Order saved = orderRepository.saveAndFlush(order);
+        inventoryService.reserve(quantities);
+        salesAnalytics.orderPlaced(saved);
+        // The buyer reads from the primary for a while, so the order shows up in their history at once
+        readYourWrites.recordWrite(userId);
+        return saved;
+    }
+
+    // Checks that need no database access; also used before queueing an order for async placement
+    public void validateOrderRequest(Order order, List<OrderItem> orderItems) {
+        if (order == null) {
+            throw new RuntimeException("Order details are required");
+        }
+        if (orderItems == null || orderItems.isEmpty()) {
+            throw new RuntimeException("Order must contain at least one item");
+        }
+        for (OrderItem item : orderItems) {
+            if (item.getProduct() == null || item.getProduct().getId() == null) {
+                throw new RuntimeException("Order item is missing a product id");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("Invalid quantity for product " + item.getProduct().getId());
+            }
+        }
     }
 
     // 2. Get orders by user (for user's order history)
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUser(Long userId) {
         return orderRepository.findByUserId(userId);
     }
 
-    // 3. Get all orders (admin dashboard)
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    // 2b. Order history as flat DTOs, loaded with a single query
+    @Transactional(readOnly = true)
+    public List<OrderHistoryEntry> getOrderHistory(Long userId) {
+        return orderRepository.findWithItemsByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(OrderService::toHistoryEntry)
+                .toList();
+    }
+
+    // Also the response body of POST /api/orders, so the entity graph (user account included) is never serialized
+    public static OrderHistoryEntry toHistoryEntry(Order order) {
+        OrderHistoryEntry entry = new OrderHistoryEntry();
+        entry.setId(order.getId());
+        entry.setUserId(order.getUser().getId());  // the id is read from the proxy without loading the user
+        entry.setFullName(order.getFullName());
+        entry.setPhone(order.getPhone());
+        entry.setAddressLine1(order.getAddressLine1());
+        entry.setAddressLine2(order.getAddressLine2());
+        entry.setCity(order.getCity());
+        entry.setPincode(order.getPincode());
+        entry.setState(order.getState());
+        entry.setCountry(order.getCountry());
+        entry.setTotalAmount(order.getTotalAmount());
+        entry.setOrderStatus(order.getOrderStatus());
+        entry.setCreatedAt(order.getCreatedAt());
+        entry.setUpdatedAt(order.getUpdatedAt());
+        entry.setItems(order.getOrderItems().stream()
+                .map(item -> new OrderHistoryEntry.Line(
+                        item.getProduct().getId(),
+                        item.getProduct().getName(),
+                        item.getQuantity(),
+                        item.getPrice()))
+                .toList());
+        return entry;
     }
 
-    // 4. Update order status (admin feature)
-    public Order updateOrderStatus(Long orderId, String status) {
-        Order order = orderRepository.findById(orderId)
+    // 3. Get all orders (admin dashboard), as DTOs loaded with a single query
+    @Transactional(readOnly = true)
+    public List<OrderHistoryEntry> getAllOrders() {
+        return orderRepository.findAllWithItemsByOrderByCreatedAtDesc().stream()
+                .map(OrderService::toHistoryEntry)
+                .toList();
+    }
+
+    // 3b. Stream order headers to the sink one row at a time (admin export).
+    // Rows are fetched from a forward-only cursor, so memory use does not depend on the number of orders.
+    @Transactional(readOnly = true)
+    public void exportOrders(LocalDateTime from, LocalDateTime to, String status, Consumer<OrderSummary> sink) {
+        try (Stream<OrderSummary> orders = orderRepository.streamSummaries(from, to, status)) {
+            orders.forEach(sink);
+        }
+    }
+
+    // 4. Update order status (admin feature).
+    // The row is locked first, so a concurrent change cannot slip in between reading the previous status and the update.
+    // The result is built inside the transaction, since the lazy item lines cannot be read once it ends.
+    @Transactional
+    public OrderHistoryEntry updateOrderStatus(Long orderId, String status) {
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        String previousStatus = order.getOrderStatus();
         order.setOrderStatus(status);
         // Optionally update updatedAt field
         order.setUpdatedAt(java.time.LocalDateTime.now());
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        salesAnalytics.statusChanged(previousStatus, status, saved.getTotalAmount());
+        return toHistoryEntry(saved);
     }
-}
 
+    // 5. Bulk status change for a list of order ids (admin feature).
+    // Each chunk is locked, updated with one UPDATE and committed on its own. If a chunk fails, the
+    // chunks before it stay committed: its ids are reported FAILED and the rest are not attempted.
+    public BulkStatusUpdateResult updateOrderStatuses(List<Long> orderIds, String status) {
+        requireStatus(status);
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+        List<BulkStatusUpdateResult.Item> results = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += STATUS_UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + STATUS_UPDATE_CHUNK_SIZE, ids.size()));
+            try {
+                results.addAll(updateChunk(chunk, status));
+            } catch (RuntimeException e) {
+                log.warn("Bulk status update stopped at a chunk of {} orders", chunk.size(), e);
+                for (Long id : chunk) {
+                    results.add(new BulkStatusUpdateResult.Item(id, BulkStatusUpdateResult.FAILED, null));
+                }
+                return new BulkStatusUpdateResult(status, results, mostSpecificMessage(e));
+            }
+        }
+        return new BulkStatusUpdateResult(status, results, null);
+    }
+
+    private List<BulkStatusUpdateResult.Item> updateChunk(List<Long> chunk, String status) {
+        return transactionTemplate.execute(tx -> {
+            Map<Long, String> previous = new HashMap<>();
+            List<OrderRepository.StatusView> rows = orderRepository.lockStatuses(chunk);
+            for (OrderRepository.StatusView row : rows) {
+                previous.put(row.getId(), row.getOrderStatus());
+            }
+            if (!previous.isEmpty()) {
+                orderRepository.updateStatus(previous.keySet(), status, LocalDateTime.now());
+                salesAnalytics.statusesChanged(rows, status);
+            }
+            List<BulkStatusUpdateResult.Item> chunkResults = new ArrayList<>(chunk.size());
+            for (Long id : chunk) {
+                chunkResults.add(previous.containsKey(id)
+                        ? new BulkStatusUpdateResult.Item(id, BulkStatusUpdateResult.UPDATED, previous.get(id))
+                        : new BulkStatusUpdateResult.Item(id, BulkStatusUpdateResult.NOT_FOUND, null));
+            }
+            return chunkResults;
+        });
+    }
+
+    // 6. Bulk status change for every order in currentStatus, optionally only those created before a time.
+    // As in 5, a failing chunk ends the run with the orders updated so far, marked incomplete.
+    public BulkStatusUpdateResult updateOrderStatusesWhere(String currentStatus, LocalDateTime createdBefore,
+                                                           String status) {
+        requireStatus(currentStatus);
+        requireStatus(status);
+        List<BulkStatusUpdateResult.Item> results = new ArrayList<>();
+        long afterId = 0L;
+        while (true) {
+            long cursor = afterId;
+            List<OrderRepository.StatusView> chunk;
+            try {
+                chunk = transactionTemplate.execute(tx -> {
+                    List<OrderRepository.StatusView> rows = orderRepository.lockStatusesWhere(
+                            currentStatus, createdBefore, cursor, STATUS_UPDATE_CHUNK_SIZE);
+                    if (!rows.isEmpty()) {
+                        orderRepository.updateStatus(rows.stream().map(OrderRepository.StatusView::getId).toList(),
+                                status, LocalDateTime.now());
+                        salesAnalytics.statusesChanged(rows, status);
+                    }
+                    return rows;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Bulk status update of {} orders stopped after {} orders", currentStatus, results.size(), e);
+                return new BulkStatusUpdateResult(status, results, mostSpecificMessage(e));
+            }
+            for (OrderRepository.StatusView row : chunk) {
+                results.add(new BulkStatusUpdateResult.Item(row.getId(), BulkStatusUpdateResult.UPDATED,
+                        row.getOrderStatus()));
+            }
+            if (chunk.size() < STATUS_UPDATE_CHUNK_SIZE) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        return new BulkStatusUpdateResult(status, results, null);
+    }
+
+    private static void requireStatus(String status) {
+        if (status == null || status.isBlank()) {
+            throw new RuntimeException("Order status is required");
+        }
+    }
+
+    // The database's own message rather than Spring's wrapper around it
+    private static String mostSpecificMessage(RuntimeException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+}
@@ -0,0 +1,137 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ssinfotech.ecommerce.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache in front of the product catalog.
+ * Entries are evicted by size and by age; ProductService invalidates them on every write.
+ * Cached products are shared between requests and are never modified; updates start from a fresh load.
+ */
+@Component
+public class ProductCatalogCache implements MeterBinder {
+
+    private static final String ALL_PRODUCTS = "all";
+
+    private final Cache<Long, Product> productsById;
+    private final Cache<String, List<Product>> allProducts;
+    private final ReentrantLock allProductsLoad = new ReentrantLock();
+    // Bumped by every invalidation, so a load that overlapped one does not put back what it read before
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCatalogCache(@Value("${catalog.cache.maximum-size:10000}") long maximumSize,
+                               @Value("${catalog.cache.ttl:5m}") Duration ttl) {
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.allProducts = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Cached lookup by id; products that are not found are not cached.
+    // Loaders run outside Caffeine's compute, which holds a monitor and would pin a virtual thread during I/O.
+    public Optional<Product> getProduct(Long id, Function<Long, Optional<Product>> loader) {
+        Product cached = productsById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = invalidations.get();
+        Optional<Product> loaded = loader.apply(id);
+        loaded.ifPresent(product -> putUnlessInvalidated(productsById, id, product, generation));
+        return loaded;
+    }
+
+    // Cached full catalog listing; concurrent misses share a single load
+    public List<Product> getAllProducts(Supplier<List<Product>> loader) {
+        List<Product> cached = allProducts.getIfPresent(ALL_PRODUCTS);
+        if (cached != null) {
+            return cached;
+        }
+        allProductsLoad.lock();
+        try {
+            cached = allProducts.getIfPresent(ALL_PRODUCTS);
+            if (cached == null) {
+                long generation = invalidations.get();
+                cached = List.copyOf(loader.get());
+                putUnlessInvalidated(allProducts, ALL_PRODUCTS, cached, generation);
+            }
+            return cached;
+        } finally {
+            allProductsLoad.unlock();
+        }
+    }
+
+    // Drop a single product and the full listing that contains it
+    public void invalidate(Long id) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            productsById.invalidate(id);
+        }
+        allProducts.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        productsById.invalidateAll();
+        allProducts.invalidateAll();
+    }
+
+    // The counter is bumped before entries are removed: an invalidation either sees this put and
+    // removes it, or is seen by the re-check after it
+    private <K, V> void putUnlessInvalidated(Cache<K, V> cache, K key, V value, long generation) {
+        if (invalidations.get() != generation) {
+            return;
+        }
+        cache.put(key, value);
+        if (invalidations.get() != generation) {
+            cache.invalidate(key);
+        }
+    }
+
+    // Hit ratio, size and evictions as cache.* meters
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, productsById, "catalog.productsById");
+        CaffeineCacheMetrics.monitor(registry, allProducts, "catalog.allProducts");
+    }
+
+    // Hit/miss/eviction counters for both caches
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("productsById", describe(productsById.stats(), productsById.estimatedSize()));
+        stats.put("allProducts", describe(allProducts.stats(), allProducts.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("size", size);
+        values.put("hits", stats.hitCount());
+        values.put("misses", stats.missCount());
+        values.put("hitRate", stats.hitRate());
+        values.put("evictions", stats.evictionCount());
+        return values;
+    }
+}
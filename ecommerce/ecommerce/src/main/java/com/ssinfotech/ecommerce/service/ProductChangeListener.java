@@ -0,0 +1,27 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.model.Product;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Notified by ProductService after a product write succeeds, so in-memory
+ * catalog views can apply the change incrementally instead of reloading.
+ */
+public interface ProductChangeListener {
+
+    void productSaved(Product product);
+
+    // A committed chunk of a bulk import; views that rebuild wholesale can react once instead of per product
+    default void productsSaved(List<Product> products) {
+        products.forEach(this::productSaved);
+    }
+
+    void productDeleted(Long productId);
+
+    // Stock was taken by a committed order, which left remaining in stock and also set the product's
+    // updatedAt; only views that track quantity or modification time need this
+    default void stockReserved(Long productId, int quantity, int remaining, LocalDateTime updatedAt) {
+    }
+}
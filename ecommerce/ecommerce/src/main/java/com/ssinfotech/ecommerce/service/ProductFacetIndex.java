@@ -0,0 +1,219 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.dto.ProductFacets;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Category counts, in-stock counts and price histograms for storefront filters.
+ * Rebuilt at startup and then maintained by deltas from product writes and stock
+ * reservations, so reading the facets costs O(categories + buckets), not O(catalog).
+ * Prices below the lowest bound are counted in a bucket of their own, listed only while it
+ * holds products. With no bounds configured the facets carry no price histogram.
+ */
+@Component
+public class ProductFacetIndex implements ProductChangeListener {
+
+    private static final String UNCATEGORIZED = "Uncategorized";
+
+    private final ProductRepository productRepository;
+    private final double[] bucketBounds;  // ascending lower bounds of the price buckets
+    private final int bucketCount;        // one more than the bounds: bucket 0 is below the lowest bound
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> products = new HashMap<>();
+    private final Map<String, Counts> byCategory = new TreeMap<>();
+    private final Counts overall;
+    // Incremented under the write lock on every change, so a rebuild can tell that its load is stale
+    private volatile long changes;
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             @Value("${catalog.facets.price-buckets:0,100,500,1000,5000,10000}") double[] bucketBounds) {
+        this.productRepository = productRepository;
+        this.bucketBounds = bucketBounds.clone();
+        Arrays.sort(this.bucketBounds);
+        this.bucketCount = this.bucketBounds.length + 1;
+        this.overall = new Counts(bucketCount);
+    }
+
+    // What the counts currently hold for one product, so an update can be applied as remove + add
+    private static final class Entry {
+        private final String category;
+        private final int bucket;
+        private int quantity;
+
+        private Entry(String category, int bucket, int quantity) {
+            this.category = category;
+            this.bucket = bucket;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class Counts {
+        private long total;
+        private long inStock;
+        private final long[] buckets;
+
+        private Counts(int bucketCount) {
+            this.buckets = new long[bucketCount];
+        }
+    }
+
+    // Loads without holding the lock; if a change arrives meanwhile the load may predate it, so it is repeated
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        while (true) {
+            long seen = changes;
+            List<Product> all = productRepository.findAll();
+            lock.writeLock().lock();
+            try {
+                if (changes != seen) {
+                    continue;
+                }
+                products.clear();
+                byCategory.clear();
+                overall.total = 0;
+                overall.inStock = 0;
+                Arrays.fill(overall.buckets, 0);
+                all.forEach(this::add);
+                return;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // One lock acquisition for a whole import chunk
+    @Override
+    public void productsSaved(List<Product> saved) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : saved) {
+                remove(product.getId());
+                add(product);
+            }
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(Long productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Takes the remaining stock rather than subtracting the quantity, so a reservation the last
+    // rebuild already loaded is not taken twice. Reservations only lower stock, and notifications
+    // of two orders may arrive in either order, so a remaining stock above the held one is stale.
+    @Override
+    public void stockReserved(Long productId, int quantity, int remaining, LocalDateTime updatedAt) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = products.get(productId);
+            if (entry != null && remaining < entry.quantity) {
+                apply(entry, -1);
+                entry.quantity = remaining;
+                apply(entry, 1);
+            }
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Facets for the whole catalog, or the price histogram within one category
+    public ProductFacets facets(String category) {
+        lock.readLock().lock();
+        try {
+            List<ProductFacets.CategoryCount> categories = new ArrayList<>(byCategory.size());
+            byCategory.forEach((name, counts) ->
+                    categories.add(new ProductFacets.CategoryCount(name, counts.total, counts.inStock)));
+
+            Counts selected = category == null ? overall : byCategory.getOrDefault(category, new Counts(bucketCount));
+            List<ProductFacets.PriceBucket> buckets = new ArrayList<>(bucketCount);
+            if (bucketBounds.length > 0 && selected.buckets[0] > 0) {
+                buckets.add(new ProductFacets.PriceBucket(null, bucketBounds[0], selected.buckets[0]));
+            }
+            for (int i = 0; i < bucketBounds.length; i++) {
+                Double max = i + 1 < bucketBounds.length ? bucketBounds[i + 1] : null;
+                buckets.add(new ProductFacets.PriceBucket(bucketBounds[i], max, selected.buckets[i + 1]));
+            }
+            return new ProductFacets(category, selected.total, selected.inStock, categories, buckets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void add(Product product) {
+        String category = product.getCategory() == null ? UNCATEGORIZED : product.getCategory();
+        int quantity = product.getQuantity() == null ? 0 : product.getQuantity();
+        Entry entry = new Entry(category, bucketFor(product.getPrice()), quantity);
+        products.put(product.getId(), entry);
+        apply(entry, 1);
+    }
+
+    // Caller holds the write lock
+    private void remove(Long productId) {
+        Entry entry = products.remove(productId);
+        if (entry != null) {
+            apply(entry, -1);
+        }
+    }
+
+    private void apply(Entry entry, int delta) {
+        Counts category = byCategory.computeIfAbsent(entry.category, c -> new Counts(bucketCount));
+        for (Counts counts : new Counts[] {overall, category}) {
+            counts.total += delta;
+            counts.buckets[entry.bucket] += delta;
+            if (entry.quantity > 0) {
+                counts.inStock += delta;
+            }
+        }
+        if (category.total == 0) {
+            byCategory.remove(entry.category);
+        }
+    }
+
+    private int bucketFor(Double price) {
+        double value = price == null ? 0 : price;
+        int index = Arrays.binarySearch(bucketBounds, value);
+        // Not found: binarySearch returns -(insertion point) - 1, and the bound is the one before it;
+        // bucket 0 holds prices below the lowest bound, so bound i is bucket i + 1
+        int bound = index >= 0 ? index : -index - 2;
+        return bound + 1;
+    }
+}
@@ -0,0 +1,449 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.dto.ProductImportResult;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk product import from CSV (with a header row) or JSON lines, read from the request stream
+ * one row at a time. Valid rows are upserted by sku in chunks of batchSize, one transaction per
+ * chunk, sent as JDBC batches of the same size; the persistence context is flushed and cleared
+ * after every chunk, so memory stays bounded by the chunk, not the upload. Invalid rows are
+ * skipped and reported with their line number. If a chunk fails in the database, its rows are
+ * retried one per transaction so only the offending rows are reported. If the upload breaks off
+ * or a chunk cannot be written at all, the chunks already committed stay and the result is
+ * returned marked incomplete.
+ * Empty or missing fields leave an existing product's value unchanged; name and price are required.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final Set<String> COLUMNS =
+            Set.of("sku", "name", "description", "price", "quantity", "imageUrl", "category");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final ProductCatalogCache productCache;
+    private final List<ProductChangeListener> changeListeners;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(TransactionTemplate transactionTemplate,
+                                ProductRepository productRepository,
+                                ProductCatalogCache productCache,
+                                List<ProductChangeListener> changeListeners,
+                                ObjectMapper objectMapper,
+                                @Value("${catalog.import.batch-size:500}") int batchSize,
+                                @Value("${catalog.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.transactionTemplate = transactionTemplate;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.changeListeners = changeListeners;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // One row as read from the upload; error is set when the row could not be read at all
+    private record RawRow(long line, Map<String, String> values, String error) {}
+
+    private record PendingRow(long line, Map<String, String> values, Product product) {}
+
+    private interface RowSource {
+        RawRow next() throws IOException;
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long inserted;
+        private long updated;
+        private long failed;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(long line, String sku, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportResult.RowError(line, sku, message));
+            }
+        }
+    }
+
+    private record ChunkOutcome(List<Product> saved, int inserted, int updated) {}
+
+    public ProductImportResult importCsv(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        CsvReader csv = new CsvReader(reader);
+        try {
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new RuntimeException("CSV upload is empty");
+            }
+            List<String> columns = new ArrayList<>(header.size());
+            for (String name : header) {
+                columns.add(column(name.trim()));
+            }
+            return run(() -> {
+                List<String> fields = csv.next();
+                while (fields != null && fields.size() == 1 && fields.get(0).isEmpty()) {
+                    fields = csv.next();  // blank line
+                }
+                if (fields == null) {
+                    return null;
+                }
+                if (csv.error != null) {
+                    return new RawRow(csv.recordLine, Map.of(), csv.error);
+                }
+                if (fields.size() != columns.size()) {
+                    return new RawRow(csv.recordLine, Map.of(),
+                            "Expected " + columns.size() + " fields but found " + fields.size());
+                }
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    values.put(columns.get(i), fields.get(i));
+                }
+                return new RawRow(csv.recordLine, values, null);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public ProductImportResult importJsonLines(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long[] lineNumber = {0};
+        return run(() -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                if (!line.isBlank()) {
+                    return parseJsonLine(lineNumber[0], line);
+                }
+            }
+            return null;
+        });
+    }
+
+    private RawRow parseJsonLine(long line, String json) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return new RawRow(line, Map.of(), "Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return new RawRow(line, Map.of(), "Expected a JSON object");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            if (!COLUMNS.contains(field.getKey())) {
+                return new RawRow(line, Map.of(), "Unknown field: " + field.getKey());
+            }
+            JsonNode value = field.getValue();
+            if (value.isContainerNode()) {
+                return new RawRow(line, Map.of(), "Field " + field.getKey() + " must be a single value");
+            }
+            if (!value.isNull()) {
+                values.put(field.getKey(), value.asText());
+            }
+        }
+        return new RawRow(line, values, null);
+    }
+
+    private ProductImportResult run(RowSource source) {
+        Report report = new Report(maxReportedErrors);
+        List<PendingRow> chunk = new ArrayList<>(batchSize);
+        String error = null;
+        try {
+            RawRow raw;
+            while ((raw = source.next()) != null) {
+                report.rows++;
+                if (raw.error() != null) {
+                    report.fail(raw.line(), null, raw.error());
+                    continue;
+                }
+                try {
+                    chunk.add(new PendingRow(raw.line(), raw.values(), toProduct(raw.values())));
+                } catch (RuntimeException e) {
+                    report.fail(raw.line(), blankToNull(raw.values().get("sku")), e.getMessage());
+                    continue;
+                }
+                if (chunk.size() >= batchSize) {
+                    try {
+                        write(chunk, report);
+                    } finally {
+                        chunk.clear();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Product import stopped after {} rows", report.rows, e);
+            error = rootMessage(e);
+        }
+        // Rows read before a broken stream are still imported
+        if (!chunk.isEmpty()) {
+            try {
+                write(chunk, report);
+            } catch (RuntimeException e) {
+                log.warn("Product import could not write its last chunk", e);
+                error = error == null ? rootMessage(e) : error;
+            }
+        }
+        return new ProductImportResult(report.rows, report.inserted, report.updated, report.failed, report.errors, error);
+    }
+
+    private void write(List<PendingRow> chunk, Report report) {
+        try {
+            ChunkOutcome outcome = transactionTemplate.execute(tx -> upsert(chunk));
+            committed(outcome, report);
+        } catch (RuntimeException chunkFailure) {
+            log.debug("Import chunk of {} rows failed, retrying individually: {}", chunk.size(), chunkFailure.getMessage());
+            for (PendingRow row : chunk) {
+                row.product().setId(null);  // ids assigned inside the rolled-back transaction must not be reused
+                try {
+                    committed(transactionTemplate.execute(tx -> upsert(List.of(row))), report);
+                } catch (RuntimeException e) {
+                    report.fail(row.line(), row.product().getSku(), rootMessage(e));
+                }
+            }
+        }
+    }
+
+    private void committed(ChunkOutcome outcome, Report report) {
+        report.inserted += outcome.inserted();
+        report.updated += outcome.updated();
+        productCache.invalidateAll();
+        changeListeners.forEach(listener -> listener.productsSaved(outcome.saved()));
+    }
+
+    // Runs inside the chunk's transaction: one SELECT for the existing skus, then batched INSERTs and UPDATEs
+    private ChunkOutcome upsert(List<PendingRow> rows) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+
+        Set<String> skus = new HashSet<>();
+        for (PendingRow row : rows) {
+            if (row.product().getSku() != null) {
+                skus.add(row.product().getSku());
+            }
+        }
+        Map<String, Product> existing = new HashMap<>();
+        if (!skus.isEmpty()) {
+            productRepository.findBySkuIn(skus).forEach(product -> existing.put(product.getSku(), product));
+        }
+
+        List<Product> saved = new ArrayList<>(rows.size());
+        int inserted = 0;
+        int updated = 0;
+        for (PendingRow row : rows) {
+            Product incoming = row.product();
+            Product target = incoming.getSku() == null ? null : existing.get(incoming.getSku());
+            if (target == null) {
+                entityManager.persist(incoming);
+                if (incoming.getSku() != null) {
+                    existing.put(incoming.getSku(), incoming);
+                }
+                saved.add(incoming);
+                inserted++;
+            } else {
+                copyPresentFields(row, target);
+                saved.add(target);
+                updated++;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return new ChunkOutcome(saved, inserted, updated);
+    }
+
+    private static void copyPresentFields(PendingRow row, Product target) {
+        Product incoming = row.product();
+        Map<String, String> values = row.values();
+        target.setName(incoming.getName());
+        target.setPrice(incoming.getPrice());
+        if (present(values, "description")) {
+            target.setDescription(incoming.getDescription());
+        }
+        if (present(values, "quantity")) {
+            target.setQuantity(incoming.getQuantity());
+        }
+        if (present(values, "imageUrl")) {
+            target.setImageUrl(incoming.getImageUrl());
+        }
+        if (present(values, "category")) {
+            target.setCategory(incoming.getCategory());
+        }
+    }
+
+    private static Product toProduct(Map<String, String> values) {
+        Product product = new Product();
+        product.setSku(text(values, "sku", 64));
+        product.setName(text(values, "name", 255));
+        if (product.getName() == null) {
+            throw new RuntimeException("name is required");
+        }
+        String price = blankToNull(values.get("price"));
+        if (price == null) {
+            throw new RuntimeException("price is required");
+        }
+        try {
+            product.setPrice(Double.parseDouble(price.trim()));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("price is not a number: " + price);
+        }
+        if (product.getPrice().isNaN() || product.getPrice().isInfinite() || product.getPrice() < 0) {
+            throw new RuntimeException("price must be zero or more");
+        }
+        String quantity = blankToNull(values.get("quantity"));
+        if (quantity != null) {
+            try {
+                product.setQuantity(Integer.parseInt(quantity.trim()));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("quantity is not a whole number: " + quantity);
+            }
+            if (product.getQuantity() < 0) {
+                throw new RuntimeException("quantity must be zero or more");
+            }
+        }
+        product.setDescription(blankToNull(values.get("description")));
+        product.setImageUrl(text(values, "imageUrl", 512));
+        product.setCategory(text(values, "category", 100));
+        return product;
+    }
+
+    private static String text(Map<String, String> values, String field, int maxLength) {
+        String value = blankToNull(values.get(field));
+        if (value != null) {
+            value = value.trim();
+            if (value.length() > maxLength) {
+                throw new RuntimeException(field + " is longer than " + maxLength + " characters");
+            }
+        }
+        return value;
+    }
+
+    private static boolean present(Map<String, String> values, String field) {
+        return blankToNull(values.get(field)) != null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    // Header names are matched case-insensitively against the product fields
+    private static String column(String name) {
+        for (String column : COLUMNS) {
+            if (column.equalsIgnoreCase(name) || (column.equals("imageUrl") && name.equalsIgnoreCase("image_url"))) {
+                return column;
+            }
+        }
+        throw new RuntimeException("Unknown CSV column: " + name);
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma-separated, fields optionally quoted with "" as an escaped
+     * quote; quoted fields may contain commas and line breaks. Reads one record at a time.
+     */
+    private static final class CsvReader {
+        private final BufferedReader in;
+        private final StringBuilder field = new StringBuilder();
+        private long line = 1;        // line the next record starts on
+        private long recordLine;      // line the last record started on
+        private String error;         // why the last record could not be read, if it could not
+
+        private CsvReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        // Fields of the next record, or null at the end of the input
+        private List<String> next() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+            error = null;
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        error = "Unterminated quoted field";
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                        field.append('"');
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+    }
+}
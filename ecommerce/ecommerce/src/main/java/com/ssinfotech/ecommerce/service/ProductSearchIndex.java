@@ -0,0 +1,380 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.dto.ProductSearchResult;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over product name, category and description.
+ * An inverted index maps each term to the products containing it (weighted by field),
+ * and a prefix trie over the indexed terms serves autocomplete and search-as-you-type.
+ * Every trie node keeps the number of terms below it and its most common terms, so neither a
+ * suggestion nor a short search prefix has to walk the subtree.
+ * Built from the database at startup and kept current through {@link ProductChangeListener}.
+ */
+@Component
+public class ProductSearchIndex implements ProductChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Most common terms kept per trie node; also the most suggestions autocomplete returns
+    public static final int MAX_SUGGESTIONS = 20;
+    // A search prefix with more completions than this expands to the node's most common terms only
+    static final int MAX_PREFIX_EXPANSIONS = 200;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final TrieNode trieRoot = new TrieNode();
+    // Incremented under the write lock on every change, so a rebuild can tell that its load is stale
+    private volatile long changes;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // Stored fields needed to render a hit, plus the weighted terms for removal
+    private record IndexedProduct(Long id, String name, String category, Double price, Map<String, Integer> terms) {}
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new TreeMap<>();
+        private String term;  // set while at least one product contains the term ending here
+        private int termCount;  // terms in this subtree, this node's included
+        private List<String> topTerms = List.of();  // up to MAX_SUGGESTIONS, see byFrequency
+    }
+
+    // Loads without holding the lock; if a change arrives meanwhile the load may predate it, so it is repeated
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        while (true) {
+            long seen = changes;
+            List<Product> products = productRepository.findAll();
+            lock.writeLock().lock();
+            try {
+                if (changes != seen) {
+                    continue;
+                }
+                documents.clear();
+                postings.clear();
+                trieRoot.children.clear();
+                Set<String> touched = new HashSet<>();
+                products.forEach(product -> add(product, touched));
+                refreshSubtree(trieRoot);
+                log.info("Product search index built with {} products and {} terms", products.size(), postings.size());
+                return;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        lock.writeLock().lock();
+        try {
+            Set<String> touched = new HashSet<>();
+            remove(product.getId(), touched);
+            add(product, touched);
+            refreshPaths(touched);
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // One lock acquisition for a whole import chunk
+    @Override
+    public void productsSaved(List<Product> saved) {
+        lock.writeLock().lock();
+        try {
+            Set<String> touched = new HashSet<>();
+            for (Product product : saved) {
+                remove(product.getId(), touched);
+                add(product, touched);
+            }
+            refreshPaths(touched);
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> touched = new HashSet<>();
+            remove(productId, touched);
+            refreshPaths(touched);
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search. Every query word must match; the last word also matches as a prefix,
+     * so partially typed queries already return results. Score is the sum of field weight x idf.
+     * The prefix expands to every indexed term it starts if there are at most MAX_PREFIX_EXPANSIONS;
+     * a prefix with more expands to its MAX_SUGGESTIONS most common terms, and the total is then
+     * reported as a lower bound.
+     */
+    public ProductSearchResult search(String query, int page, int size) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new ProductSearchResult(query, 0, page, size, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            boolean truncated = false;
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                List<String> terms;
+                if (i < words.size() - 1) {
+                    terms = postings.containsKey(word) ? List.of(word) : List.of();
+                } else {
+                    TrieNode node = trieNode(word, false);
+                    if (node == null) {
+                        terms = List.of();
+                    } else if (node.termCount <= MAX_PREFIX_EXPANSIONS) {
+                        terms = new ArrayList<>(node.termCount);
+                        collect(node, terms);
+                    } else {
+                        terms = node.topTerms;
+                        truncated = true;
+                    }
+                }
+
+                Map<Long, Double> wordScores = new HashMap<>();
+                for (String term : terms) {
+                    Map<Long, Integer> posting = postings.get(term);
+                    double idf = Math.log(1.0 + (double) documents.size() / posting.size());
+                    posting.forEach((id, weight) -> wordScores.merge(id, weight * idf, Math::max));
+                }
+
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    scores.replaceAll((id, score) -> score + wordScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<ProductSearchResult.Hit> hits = new ArrayList<>();
+            long from = (long) page * size;
+            for (int i = (int) Math.min(from, ranked.size()); i < ranked.size() && hits.size() < size; i++) {
+                IndexedProduct product = documents.get(ranked.get(i).getKey());
+                hits.add(new ProductSearchResult.Hit(product.id(), product.name(), product.category(),
+                        product.price(), ranked.get(i).getValue()));
+            }
+            return new ProductSearchResult(query, ranked.size(), truncated, page, size, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Indexed terms starting with the last word of the prefix, most common first; at most MAX_SUGGESTIONS
+    public List<String> autocomplete(String prefix, int limit) {
+        List<String> words = tokenize(prefix);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            TrieNode node = trieNode(words.get(words.size() - 1), false);
+            if (node == null) {
+                return List.of();
+            }
+            return List.copyOf(node.topTerms.subList(0, Math.min(limit, node.topTerms.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock. Terms whose document count changes are added to touched
+    private void add(Product product, Set<String> touched) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, product.getName(), NAME_WEIGHT);
+        addTerms(terms, product.getCategory(), CATEGORY_WEIGHT);
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        documents.put(product.getId(), new IndexedProduct(product.getId(), product.getName(),
+                product.getCategory(), product.getPrice(), terms));
+        terms.forEach((term, weight) -> {
+            Map<Long, Integer> posting = postings.computeIfAbsent(term, t -> {
+                trieNode(t, true).term = t;
+                return new HashMap<>();
+            });
+            posting.put(product.getId(), weight);
+            touched.add(term);
+        });
+    }
+
+    // Caller holds the write lock. Terms whose document count changes are added to touched
+    private void remove(Long productId, Set<String> touched) {
+        IndexedProduct existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms().keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(productId);
+            touched.add(term);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                removeFromTrie(term);
+            }
+        }
+    }
+
+    // Caller holds the write lock. Clears the term, then drops the nodes left leading to no term
+    private void removeFromTrie(String term) {
+        TrieNode[] path = new TrieNode[term.length() + 1];
+        path[0] = trieRoot;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].children.get(term.charAt(i));
+        }
+        path[term.length()].term = null;
+        for (int i = term.length(); i > 0 && path[i].term == null && path[i].children.isEmpty(); i--) {
+            path[i - 1].children.remove(term.charAt(i - 1));
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private TrieNode trieNode(String term, boolean create) {
+        TrieNode node = trieRoot;
+        for (int i = 0; i < term.length() && node != null; i++) {
+            char c = term.charAt(i);
+            node = create ? node.children.computeIfAbsent(c, k -> new TrieNode()) : node.children.get(c);
+        }
+        return node;
+    }
+
+    // Caller holds the write lock. Recomputes the nodes on the paths to the given terms, deepest first;
+    // the path of a removed term ends where its nodes were pruned
+    private void refreshPaths(Collection<String> terms) {
+        List<Set<TrieNode>> byDepth = new ArrayList<>();
+        for (String term : terms) {
+            TrieNode node = trieRoot;
+            for (int depth = 0; node != null; depth++) {
+                if (byDepth.size() == depth) {
+                    byDepth.add(new HashSet<>());
+                }
+                byDepth.get(depth).add(node);
+                node = depth < term.length() ? node.children.get(term.charAt(depth)) : null;
+            }
+        }
+        for (int depth = byDepth.size() - 1; depth >= 0; depth--) {
+            byDepth.get(depth).forEach(this::refresh);
+        }
+    }
+
+    // Caller holds the write lock. Recomputes every node below and including the given one
+    private void refreshSubtree(TrieNode node) {
+        for (TrieNode child : node.children.values()) {
+            refreshSubtree(child);
+        }
+        refresh(node);
+    }
+
+    // The node's term count and most common terms, from its own term and its children's (already current)
+    private void refresh(TrieNode node) {
+        int count = node.term == null ? 0 : 1;
+        List<String> candidates = new ArrayList<>();
+        if (node.term != null) {
+            candidates.add(node.term);
+        }
+        for (TrieNode child : node.children.values()) {
+            count += child.termCount;
+            candidates.addAll(child.topTerms);
+        }
+        candidates.sort(byFrequency());
+        node.termCount = count;
+        node.topTerms = List.copyOf(candidates.subList(0, Math.min(MAX_SUGGESTIONS, candidates.size())));
+    }
+
+    // Most products first, then alphabetical
+    private Comparator<String> byFrequency() {
+        return Comparator.comparingInt((String term) -> postings.get(term).size()).reversed()
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    // All terms in the subtree, in lexicographic order; caller holds a lock
+    private static void collect(TrieNode node, List<String> result) {
+        if (node.term != null) {
+            result.add(node.term);
+        }
+        for (TrieNode child : node.children.values()) {
+            collect(child, result);
+        }
+    }
+
+    // Trie nodes below the root; every one of them leads to an indexed term
+    int trieSize() {
+        lock.readLock().lock();
+        try {
+            return countNodes(trieRoot) - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int countNodes(TrieNode node) {
+        int count = 1;
+        for (TrieNode child : node.children.values()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,36 +1,137 @@
 package com.ssinfotech.ecommerce.service;
 
+import com.ssinfotech.ecommerce.dto.ProductFacets;
+import com.ssinfotech.ecommerce.dto.ProductPage;
+import com.ssinfotech.ecommerce.dto.ProductSearchResult;
 import com.ssinfotech.ecommerce.model.Product;
 import com.ssinfotech.ecommerce.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed("app.service")
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private ProductRepository productRepository;
 
-    // Add or update product
+    @Autowired
+    private ProductCatalogCache productCache;
+
+    @Autowired
+    private List<ProductChangeListener> changeListeners;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductVersionIndex versionIndex;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshot;
+
+    // Add or update product (cached copies are dropped even if the save fails)
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved;
+        try {
+            saved = productRepository.save(product);
+        } finally {
+            productCache.invalidate(product.getId());
+        }
+        changeListeners.forEach(listener -> listener.productSaved(saved));
+        return saved;
+    }
+
+    // Update a product from the database row, never from the cached instance: cached products are shared
+    // with concurrent readers and must not change, and a failed save must not leave new values behind
+    public Optional<Product> updateProduct(Long id, Product details) {
+        return productRepository.findById(id).map(existing -> {
+            existing.setSku(details.getSku());
+            existing.setName(details.getName());
+            existing.setDescription(details.getDescription());
+            existing.setPrice(details.getPrice());
+            existing.setQuantity(details.getQuantity());
+            existing.setImageUrl(details.getImageUrl());
+            existing.setCategory(details.getCategory());
+            return saveProduct(existing);
+        });
     }
 
     // Get all products
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productCache.getAllProducts(productRepository::findAll);
     }
 
-    // Get product by id
+    // Keyset-paginated listing; filters are applied in the database query
+    public ProductPage getProductPage(Long afterId, Integer size, String category, Double minPrice, Double maxPrice) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long cursor = afterId == null ? 0L : afterId;
+
+        // Fetch one extra row to know whether another page follows
+        List<Product> rows = productRepository.findBy(
+                ProductRepository.pageAfter(cursor, category, minPrice, maxPrice),
+                query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        if (rows.size() <= pageSize) {
+            return new ProductPage(rows, null);
+        }
+        List<Product> items = rows.subList(0, pageSize);
+        return new ProductPage(items, items.get(pageSize - 1).getId());
+    }
+
+    // Get product by id; the result may be the cached instance, so callers treat it as read-only
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productCache.getProduct(id, productRepository::findById);
+    }
+
+    // ETag/Last-Modified of one product, from memory; empty if unknown (the caller then loads it)
+    public Optional<ProductVersionIndex.Validators> getProductValidators(Long id) {
+        return versionIndex.product(id);
+    }
+
+    // Pre-serialized JSON of the full catalog, or of one category, with its ETag/Last-Modified
+    public CatalogSnapshotService.Entry getCatalogSnapshot(String category) {
+        return catalogSnapshot.catalog(category);
     }
 
     // Delete product by id
     public void deleteProductById(Long id) {
-        productRepository.deleteById(id);
+        try {
+            productRepository.deleteById(id);
+        } finally {
+            productCache.invalidate(id);
+        }
+        changeListeners.forEach(listener -> listener.productDeleted(id));
+    }
+
+    // Full-text search over name, category and description
+    public ProductSearchResult searchProducts(String query, int page, int size) {
+        return searchIndex.search(query, Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    // Completions for a partially typed search word
+    public List<String> autocomplete(String prefix, int limit) {
+        return searchIndex.autocomplete(prefix, Math.max(1, Math.min(limit, ProductSearchIndex.MAX_SUGGESTIONS)));
+    }
+
+    // Category, stock and price-range counts for filters
+    public ProductFacets getFacets(String category) {
+        return facetIndex.facets(category);
+    }
+
+    // Cache hit/miss/eviction counters
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return productCache.stats();
     }
 }
@@ -0,0 +1,152 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * HTTP validators (ETag and Last-Modified) for single products and for the whole catalog,
+ * kept in memory so conditional GETs can be answered without loading any entity.
+ * A product's ETag is its updatedAt plus the index version of its last change, so two writes
+ * in the same millisecond still get different ETags. Products unchanged since startup have
+ * revision 0. The catalog ETag is a fingerprint of every (id, updatedAt, revision) triple, so
+ * an unchanged catalog keeps its ETag across restarts and any insert, update or delete changes it.
+ * The version counter increments with each change seen by this instance.
+ */
+@Component
+public class ProductVersionIndex implements ProductChangeListener {
+
+    private final ProductRepository productRepository;
+
+    private final Map<Long, Stamp> stamps = new HashMap<>();
+    private long fingerprint;
+    private long version;
+    private long writeVersion;
+    private long lastModifiedMillis;
+    private boolean ready;
+
+    public ProductVersionIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public record Validators(String eTag, long lastModifiedMillis) {}
+
+    // revision is the index version when the product last changed, or 0 if unchanged since the index was built
+    private record Stamp(long millis, long revision) {}
+
+    // Loads without holding the lock; if a change arrives meanwhile the load may predate it, so it is repeated
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        while (true) {
+            long seen = version();
+            List<Product> products = productRepository.findAll();
+            synchronized (this) {
+                if (version != seen) {
+                    continue;
+                }
+                stamps.clear();
+                fingerprint = 0;
+                lastModifiedMillis = 0;
+                products.forEach(product -> put(product.getId(), millis(product), 0));
+                // Deletions before this start are not visible in updatedAt, so nothing earlier counts as unmodified
+                lastModifiedMillis = Math.max(lastModifiedMillis, System.currentTimeMillis());
+                version++;
+                writeVersion++;
+                ready = true;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void productSaved(Product product) {
+        remove(product.getId());
+        put(product.getId(), millis(product), ++version);
+        writeVersion++;
+    }
+
+    @Override
+    public synchronized void productDeleted(Long productId) {
+        remove(productId);
+        lastModifiedMillis = Math.max(lastModifiedMillis, System.currentTimeMillis());
+        version++;
+        writeVersion++;
+    }
+
+    @Override
+    public synchronized void stockReserved(Long productId, int quantity, int remaining, LocalDateTime updatedAt) {
+        if (stamps.containsKey(productId)) {
+            remove(productId);
+            put(productId, toMillis(updatedAt), ++version);
+        }
+    }
+
+    // Empty for products this index does not know; callers then fall back to loading the product
+    public synchronized Optional<Validators> product(Long productId) {
+        Stamp stamp = ready ? stamps.get(productId) : null;
+        if (stamp == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Validators("\"p" + productId + "-" + Long.toHexString(stamp.millis())
+                + "-" + Long.toHexString(stamp.revision()) + "\"", stamp.millis()));
+    }
+
+    // Empty until the index has been built at startup
+    public synchronized Optional<Validators> catalog() {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.of(new Validators(
+                "\"c" + stamps.size() + "-" + Long.toHexString(fingerprint) + "\"", lastModifiedMillis));
+    }
+
+    // Incremented on every catalog change seen by this instance; not comparable across restarts
+    public synchronized long version() {
+        return version;
+    }
+
+    // Like version(), but not incremented by stock reservations: only product saves, deletes and the startup load
+    public synchronized long writeVersion() {
+        return writeVersion;
+    }
+
+    // Caller holds the lock
+    private void put(Long productId, long millis, long revision) {
+        stamps.put(productId, new Stamp(millis, revision));
+        fingerprint += mix(productId, millis, revision);
+        lastModifiedMillis = Math.max(lastModifiedMillis, millis);
+    }
+
+    // Caller holds the lock
+    private void remove(Long productId) {
+        Stamp stamp = stamps.remove(productId);
+        if (stamp != null) {
+            fingerprint -= mix(productId, stamp.millis(), stamp.revision());
+        }
+    }
+
+    // Order-independent fingerprint: each product adds a well-mixed 64-bit value (SplitMix64 finalizer)
+    private static long mix(long productId, long millis, long revision) {
+        long z = productId * 0x9E3779B97F4A7C15L + millis + revision * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long millis(Product product) {
+        return toMillis(product.getUpdatedAt() != null ? product.getUpdatedAt() : product.getCreatedAt());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,529 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.dto.SalesDashboard;
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.model.SalesSummary;
+import com.ssinfotech.ecommerce.repository.OrderItemRepository;
+import com.ssinfotech.ecommerce.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sales rollups for the admin dashboard: revenue per day, orders per status, units and revenue
+ * per product and per category, and the best-selling products. Backfilled with GROUP BY queries
+ * before the web server starts, then updated after each order or status change commits, so the
+ * dashboard reads in time independent of the number of orders. Amounts are gross: an order
+ * counts towards revenue whatever its status, and the status rollup shows how much is, say,
+ * cancelled. sales_summary is kept incrementally: each instance adds what its own commits
+ * changed since the last flush, periodically and at shutdown, so the table sums the changes of
+ * every instance without rescanning the order tables. V7 seeds it with the orders placed before.
+ */
+@Component
+public class SalesAnalytics implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalytics.class);
+
+    private static final String UNCATEGORIZED = "Uncategorized";
+    private static final int MAX_DAYS = 366;
+
+    // Adds a change to a row, creating it if needed; the casts type the parameters for DB2
+    private static final String MERGE_SQL =
+            "MERGE INTO sales_summary t USING (VALUES (CAST(? AS VARCHAR(16)), CAST(? AS VARCHAR(100)), "
+            + "CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS DOUBLE), CAST(? AS TIMESTAMP))) "
+            + "AS s (dimension, dimension_key, orders, units, amount, updated_at) "
+            + "ON t.dimension = s.dimension AND t.dimension_key = s.dimension_key "
+            + "WHEN MATCHED THEN UPDATE SET orders = t.orders + s.orders, units = t.units + s.units, "
+            + "amount = t.amount + s.amount, updated_at = s.updated_at "
+            + "WHEN NOT MATCHED THEN INSERT (dimension, dimension_key, orders, units, amount, updated_at) "
+            + "VALUES (s.dimension, s.dimension_key, s.orders, s.units, s.amount, s.updated_at)";
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final DailySeries daily = new DailySeries();
+    private final Map<String, Totals> byStatus = new TreeMap<>();
+    private final Map<String, Totals> byCategory = new TreeMap<>();
+    private final ProductTotals products = new ProductTotals();
+    private final TopProducts topProducts;
+    private long orders;
+    private double revenue;
+    // Changes committed on this instance and not yet added to sales_summary, guarded by the write lock
+    private Map<SummaryKey, Totals> unpersisted = new HashMap<>();
+
+    public SalesAnalytics(OrderRepository orderRepository,
+                          OrderItemRepository orderItemRepository,
+                          JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${analytics.top-products:100}") int topProducts) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.topProducts = new TopProducts(topProducts);
+    }
+
+    // What a committed order adds, captured while its items are still loaded
+    private record PlacedOrder(long epochDay, String status, double total,
+                               long[] productIds, int[] quantities, double[] amounts, String[] categories) {}
+
+    private record StatusChange(String from, double amount) {}
+
+    private record SummaryKey(String dimension, String key) {}
+
+    private static final class Totals {
+        private long orders;
+        private long units;
+        private double amount;
+    }
+
+    // Runs after all singletons exist but before the web server accepts requests, so no order
+    // can commit between the backfill queries and the first incremental update
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfill();
+    }
+
+    public void backfill() {
+        List<OrderRepository.DailyTotals> days = orderRepository.dailyTotals();
+        List<OrderRepository.StatusTotals> statuses = orderRepository.statusTotals();
+        List<OrderItemRepository.ProductTotals> productRows = orderItemRepository.productTotals();
+
+        lock.writeLock().lock();
+        try {
+            daily.clear();
+            byStatus.clear();
+            byCategory.clear();
+            products.clear();
+            topProducts.clear();
+            orders = 0;
+            revenue = 0;
+            for (OrderRepository.DailyTotals day : days) {
+                daily.add(day.getOrderDate().toEpochDay(), day.getOrders(), day.getAmount());
+                orders += day.getOrders();
+                revenue += day.getAmount();
+            }
+            for (OrderRepository.StatusTotals status : statuses) {
+                Totals totals = byStatus.computeIfAbsent(status.getOrderStatus(), s -> new Totals());
+                totals.orders += status.getOrders();
+                totals.amount += status.getAmount();
+            }
+            for (OrderItemRepository.ProductTotals row : productRows) {
+                addProductSales(row.getProductId(), row.getCategory(), row.getLines(), row.getUnits(), row.getAmount());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Sales analytics backfilled: {} orders over {} days, {} products", orders, days.size(), productRows.size());
+    }
+
+    // Call from the transaction that places the order; the rollups change only if it commits
+    public void orderPlaced(Order order) {
+        List<OrderItem> items = order.getOrderItems();
+        int n = items.size();
+        long[] productIds = new long[n];
+        int[] quantities = new int[n];
+        double[] amounts = new double[n];
+        String[] categories = new String[n];
+        for (int i = 0; i < n; i++) {
+            OrderItem item = items.get(i);
+            productIds[i] = item.getProduct().getId();
+            quantities[i] = item.getQuantity();
+            amounts[i] = item.getPrice() * item.getQuantity();
+            categories[i] = item.getProduct().getCategory();
+        }
+        PlacedOrder placed = new PlacedOrder(order.getCreatedAt().toLocalDate().toEpochDay(),
+                order.getOrderStatus(), order.getTotalAmount(), productIds, quantities, amounts, categories);
+        afterCommit(() -> apply(placed));
+    }
+
+    public void statusChanged(String from, String to, double amount) {
+        List<StatusChange> change = List.of(new StatusChange(from, amount));
+        afterCommit(() -> apply(change, to));
+    }
+
+    // Bulk variant: the rows as locked before the update, with their previous status
+    public void statusesChanged(Collection<OrderRepository.StatusView> rows, String to) {
+        List<StatusChange> changes = new ArrayList<>(rows.size());
+        for (OrderRepository.StatusView row : rows) {
+            changes.add(new StatusChange(row.getOrderStatus(), row.getTotalAmount()));
+        }
+        afterCommit(() -> apply(changes, to));
+    }
+
+    public SalesDashboard dashboard(int days, int top) {
+        int dayCount = Math.max(1, Math.min(days, MAX_DAYS));
+        LocalDate today = LocalDate.now();
+        lock.readLock().lock();
+        try {
+            List<SalesDashboard.Day> series = new ArrayList<>(dayCount);
+            for (int i = dayCount - 1; i >= 0; i--) {
+                LocalDate date = today.minusDays(i);
+                int slot = daily.slotOf(date.toEpochDay());
+                series.add(slot < 0
+                        ? new SalesDashboard.Day(date, 0, 0)
+                        : new SalesDashboard.Day(date, daily.orders[slot], daily.amount[slot]));
+            }
+            List<SalesDashboard.Total> statuses = new ArrayList<>(byStatus.size());
+            byStatus.forEach((name, t) -> {
+                if (t.orders > 0) {
+                    statuses.add(new SalesDashboard.Total(name, t.orders, t.units, t.amount));
+                }
+            });
+            List<SalesDashboard.Total> categories = new ArrayList<>(byCategory.size());
+            byCategory.forEach((name, t) -> categories.add(new SalesDashboard.Total(name, t.orders, t.units, t.amount)));
+
+            int topCount = Math.max(0, Math.min(top, topProducts.size));
+            List<SalesDashboard.ProductSales> best = new ArrayList<>(topCount);
+            for (int i = 0; i < topCount; i++) {
+                long productId = topProducts.ids[i];
+                int slot = products.slotOf(productId);
+                best.add(new SalesDashboard.ProductSales(productId, products.units[slot], products.amount[slot]));
+            }
+            return new SalesDashboard(orders, revenue, series, statuses, categories, best);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add the changes committed on this instance since the last call to sales_summary: one MERGE
+     * per changed row, in one batch and one transaction, and no reads of the order tables. If the
+     * write fails the changes are kept for the next call.
+     */
+    @Scheduled(fixedDelayString = "${analytics.persist-interval:5m}", initialDelayString = "${analytics.persist-interval:5m}")
+    public void persist() {
+        Map<SummaryKey, Totals> changes;
+        lock.writeLock().lock();
+        try {
+            if (unpersisted.isEmpty()) {
+                return;
+            }
+            changes = unpersisted;
+            unpersisted = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        changes.forEach((key, t) -> rows.add(new Object[] {key.dimension(), key.key(), t.orders, t.units, t.amount, now}));
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.batchUpdate(MERGE_SQL, rows);
+                // A status every order has left is not a row, as in a GROUP BY
+                jdbcTemplate.update("DELETE FROM sales_summary WHERE dimension = ? AND orders = 0", SalesSummary.STATUS);
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changes.forEach((key, t) -> addUnpersisted(key.dimension(), key.key(), t.orders, t.units, t.amount));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        log.debug("Persisted {} changed sales summary rows", rows.size());
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        try {
+            persist();
+        } catch (RuntimeException e) {
+            log.warn("Could not persist sales summary at shutdown", e);
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private void apply(PlacedOrder placed) {
+        lock.writeLock().lock();
+        try {
+            orders++;
+            revenue += placed.total();
+            daily.add(placed.epochDay(), 1, placed.total());
+            Totals status = byStatus.computeIfAbsent(placed.status(), s -> new Totals());
+            status.orders++;
+            status.amount += placed.total();
+            addUnpersisted(SalesSummary.DAY, LocalDate.ofEpochDay(placed.epochDay()).toString(), 1, 0, placed.total());
+            addUnpersisted(SalesSummary.STATUS, placed.status(), 1, 0, placed.total());
+            for (int i = 0; i < placed.productIds().length; i++) {
+                addProductSales(placed.productIds()[i], placed.categories()[i], 1, placed.quantities()[i], placed.amounts()[i]);
+                String category = placed.categories()[i] == null ? UNCATEGORIZED : placed.categories()[i];
+                addUnpersisted(SalesSummary.PRODUCT, Long.toString(placed.productIds()[i]), 1, placed.quantities()[i], placed.amounts()[i]);
+                addUnpersisted(SalesSummary.CATEGORY, category, 1, placed.quantities()[i], placed.amounts()[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(List<StatusChange> statusChanges, String to) {
+        lock.writeLock().lock();
+        try {
+            for (StatusChange change : statusChanges) {
+                if (!to.equals(change.from())) {
+                    addStatus(change.from(), -1, -change.amount());
+                    addStatus(to, 1, change.amount());
+                    addUnpersisted(SalesSummary.STATUS, change.from(), -1, 0, -change.amount());
+                    addUnpersisted(SalesSummary.STATUS, to, 1, 0, change.amount());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock. Two changes of one order may be applied in either order, so a status
+    // can drop below zero orders until the earlier change arrives; the dashboard leaves it out meanwhile.
+    private void addStatus(String status, long count, double amount) {
+        Totals totals = byStatus.computeIfAbsent(status, s -> new Totals());
+        totals.orders += count;
+        totals.amount += amount;
+        if (totals.orders == 0) {
+            byStatus.remove(status);
+        }
+    }
+
+    // Caller holds the write lock
+    private void addUnpersisted(String dimension, String key, long count, long units, double amount) {
+        Totals totals = unpersisted.computeIfAbsent(new SummaryKey(dimension, key), k -> new Totals());
+        totals.orders += count;
+        totals.units += units;
+        totals.amount += amount;
+    }
+
+    // Caller holds the write lock. Lines is the number of order lines the units come from.
+    private void addProductSales(long productId, String category, long lines, long units, double amount) {
+        int slot = products.add(productId, lines, units, amount);
+        topProducts.update(productId, products.units[slot]);
+        Totals totals = byCategory.computeIfAbsent(category == null ? UNCATEGORIZED : category, c -> new Totals());
+        totals.orders += lines;
+        totals.units += units;
+        totals.amount += amount;
+    }
+
+    /**
+     * Order count and revenue per calendar day in two parallel arrays indexed by
+     * (epoch day - firstDay); grows at either end as orders arrive for new days.
+     */
+    private static final class DailySeries {
+        private long firstDay;
+        private long[] orders = new long[0];
+        private double[] amount = new double[0];
+
+        private void clear() {
+            orders = new long[0];
+            amount = new double[0];
+        }
+
+        private void add(long epochDay, long count, double value) {
+            int slot = ensureSlot(epochDay);
+            orders[slot] += count;
+            amount[slot] += value;
+        }
+
+        private int slotOf(long epochDay) {
+            long slot = epochDay - firstDay;
+            return slot < 0 || slot >= orders.length ? -1 : (int) slot;
+        }
+
+        private int ensureSlot(long epochDay) {
+            if (orders.length == 0) {
+                firstDay = epochDay;
+                orders = new long[64];
+                amount = new double[64];
+            } else if (epochDay < firstDay) {
+                int shift = (int) Math.max(firstDay - epochDay, orders.length / 2);
+                long[] newOrders = new long[orders.length + shift];
+                double[] newAmount = new double[orders.length + shift];
+                System.arraycopy(orders, 0, newOrders, shift, orders.length);
+                System.arraycopy(amount, 0, newAmount, shift, amount.length);
+                orders = newOrders;
+                amount = newAmount;
+                firstDay -= shift;
+            } else if (epochDay - firstDay >= orders.length) {
+                int length = (int) Math.max(epochDay - firstDay + 1, orders.length * 2L);
+                orders = Arrays.copyOf(orders, length);
+                amount = Arrays.copyOf(amount, length);
+            }
+            return (int) (epochDay - firstDay);
+        }
+    }
+
+    /**
+     * Per-product totals in an open-addressing table: product ids in a long[] with linear
+     * probing, counters in parallel primitive arrays, no boxing per product or per update.
+     */
+    private static final class ProductTotals {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private long[] orders;
+        private long[] units;
+        private double[] amount;
+        private int size;
+
+        private ProductTotals() {
+            clear();
+        }
+
+        private void clear() {
+            keys = new long[1024];
+            Arrays.fill(keys, EMPTY);
+            orders = new long[1024];
+            units = new long[1024];
+            amount = new double[1024];
+            size = 0;
+        }
+
+        private int slotOf(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                if (keys[slot] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        // Adds to the product's totals and returns its slot
+        private int add(long key, long addLines, long addUnits, double addAmount) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != key && keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                size++;
+            }
+            orders[slot] += addLines;
+            units[slot] += addUnits;
+            amount[slot] += addAmount;
+            return slot;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldOrders = orders;
+            long[] oldUnits = units;
+            double[] oldAmount = amount;
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            orders = new long[capacity];
+            units = new long[capacity];
+            amount = new double[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    orders[slot] = oldOrders[i];
+                    units[slot] = oldUnits[i];
+                    amount[slot] = oldAmount[i];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * The best-selling products by units, sorted descending. Gross units only ever grow, so a
+     * product enters when it overtakes the last entry and then moves up; that keeps the list
+     * exact with O(capacity) work per update and no scan of all products.
+     */
+    private static final class TopProducts {
+        private final long[] ids;
+        private final long[] units;
+        private int size;
+
+        private TopProducts(int capacity) {
+            this.ids = new long[capacity];
+            this.units = new long[capacity];
+        }
+
+        private void clear() {
+            size = 0;
+        }
+
+        private void update(long productId, long totalUnits) {
+            int pos = -1;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == productId) {
+                    pos = i;
+                    break;
+                }
+            }
+            if (pos < 0) {
+                if (size < ids.length) {
+                    pos = size++;
+                } else if (size > 0 && totalUnits > units[size - 1]) {
+                    pos = size - 1;
+                } else {
+                    return;
+                }
+                ids[pos] = productId;
+            }
+            units[pos] = totalUnits;
+            while (pos > 0 && units[pos - 1] < units[pos]) {
+                long id = ids[pos - 1];
+                long count = units[pos - 1];
+                ids[pos - 1] = ids[pos];
+                units[pos - 1] = units[pos];
+                ids[pos] = id;
+                units[pos] = count;
+                pos--;
+            }
+        }
+    }
+}
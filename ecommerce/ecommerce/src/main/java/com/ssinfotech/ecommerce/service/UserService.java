@@ -2,11 +2,14 @@ package com.ssinfotech.ecommerce.service;
 
 import com.ssinfotech.ecommerce.model.User;
 import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.DatabaseUserDetailsService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
+@Timed("app.service")
 public class UserService {
 
     @Autowired
@@ -16,9 +19,14 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    // Registration with duplicate email check and password encoding
+    @Autowired
+    private DatabaseUserDetailsService userDetailsService;
+
+    // Registration with duplicate email check and password encoding.
+    // Built-in account names (e.g. "admin") are reserved, so nobody can register as one.
     public User registerUser(User user) {
-        if (userRepository.findByEmail(user.getEmail()) != null) {
+        if (userDetailsService.isReserved(user.getEmail())
+                || userRepository.findByEmail(user.getEmail()) != null) {
             throw new RuntimeException("Email already registered");
         }
         // Encode password
@@ -31,9 +39,9 @@ public class UserService {
         return userRepository.save(user);
     }
 
-    // Login: Find user by email
+    // Login: Find user by email. A row under a reserved name (registered before it was reserved) cannot log in.
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userDetailsService.isReserved(email) ? null : userRepository.findByEmail(email);
     }
 
     // Get user by id
@@ -48,7 +56,9 @@ public class UserService {
         user.setName(newData.getName());
         user.setPhone(newData.getPhone());
         // ...set any other fields you want users to be able to update
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userDetailsService.evict(saved.getEmail());  // keep the cached principal in sync
+        return saved;
     }
 
     public PasswordEncoder getPasswordEncoder() {
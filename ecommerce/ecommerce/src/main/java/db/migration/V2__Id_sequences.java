@@ -0,0 +1,39 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Moves entity ids from IDENTITY columns to pooled sequences (allocationSize 50), which lets
+ * Hibernate batch inserts. Each sequence starts above the table's current ids, so this is Java
+ * rather than SQL: CREATE SEQUENCE takes only a literal START WITH.
+ */
+public class V2__Id_sequences extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String[] TABLES = {"user", "address", "product", "orders", "order_items"};
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long maxId;
+                try (ResultSet rows = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+                    rows.next();
+                    maxId = rows.getLong(1);
+                }
+                // Hibernate's pooled optimizer hands out (value - 49) to value for each value it reads,
+                // except for a first value of 1; start a whole block above the highest id
+                long startWith = maxId == 0 ? 1 : maxId + ALLOCATION_SIZE + 1;
+                statement.execute("CREATE SEQUENCE " + table + "_seq AS BIGINT START WITH " + startWith
+                        + " INCREMENT BY " + ALLOCATION_SIZE);
+                // Ids now always come from the sequence
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+            }
+        }
+    }
+}
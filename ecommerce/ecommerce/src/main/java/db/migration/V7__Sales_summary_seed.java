@@ -0,0 +1,81 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fills sales_summary from the order tables once. From here on SalesAnalytics only adds the
+ * changes each instance commits, so the table has to start from the orders placed so far. Day
+ * keys are ISO dates formatted in Java, since DB2 renders dates in the database's locale format.
+ */
+public class V7__Sales_summary_seed extends BaseJavaMigration {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO sales_summary (dimension, dimension_key, orders, units, amount, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final class Totals {
+        private long orders;
+        private long units;
+        private double amount;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (Statement statement = context.getConnection().createStatement();
+             PreparedStatement insert = context.getConnection().prepareStatement(INSERT_SQL)) {
+            statement.execute("DELETE FROM sales_summary");
+
+            try (ResultSet rows = statement.executeQuery("SELECT CAST(created_at AS DATE), COUNT(*), SUM(total_amount) "
+                    + "FROM orders GROUP BY CAST(created_at AS DATE)")) {
+                while (rows.next()) {
+                    add(insert, "DAY", rows.getDate(1).toLocalDate().toString(), rows.getLong(2), 0, rows.getDouble(3), now);
+                }
+            }
+            try (ResultSet rows = statement.executeQuery("SELECT order_status, COUNT(*), SUM(total_amount) "
+                    + "FROM orders GROUP BY order_status")) {
+                while (rows.next()) {
+                    add(insert, "STATUS", rows.getString(1), rows.getLong(2), 0, rows.getDouble(3), now);
+                }
+            }
+            // Per product, and per category from the same rows: orders counts order lines
+            Map<String, Totals> categories = new TreeMap<>();
+            try (ResultSet rows = statement.executeQuery("SELECT p.id, p.category, COUNT(*), SUM(i.quantity), "
+                    + "SUM(i.quantity * i.price) FROM order_items i JOIN product p ON p.id = i.product_id "
+                    + "GROUP BY p.id, p.category")) {
+                while (rows.next()) {
+                    add(insert, "PRODUCT", Long.toString(rows.getLong(1)), rows.getLong(3), rows.getLong(4), rows.getDouble(5), now);
+                    String category = rows.getString(2) == null ? "Uncategorized" : rows.getString(2);
+                    Totals totals = categories.computeIfAbsent(category, c -> new Totals());
+                    totals.orders += rows.getLong(3);
+                    totals.units += rows.getLong(4);
+                    totals.amount += rows.getDouble(5);
+                }
+            }
+            for (Map.Entry<String, Totals> category : categories.entrySet()) {
+                Totals totals = category.getValue();
+                add(insert, "CATEGORY", category.getKey(), totals.orders, totals.units, totals.amount, now);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void add(PreparedStatement insert, String dimension, String key, long orders, long units,
+                            double amount, Timestamp now) throws Exception {
+        insert.setString(1, dimension);
+        insert.setString(2, key);
+        insert.setLong(3, orders);
+        insert.setLong(4, units);
+        insert.setDouble(5, amount);
+        insert.setTimestamp(6, now);
+        insert.addBatch();
+    }
+}
@@ -0,0 +1,76 @@
+-- Schema of the original entity model: IDENTITY ids, no product sku, no sales rollups.
+-- Databases deployed before migrations were introduced already have these objects: Flyway
+-- records them as baseline version 1 (spring.flyway.baseline-on-migrate) and applies V2 onwards.
+
+CREATE TABLE user (
+    id          BIGINT       NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    name        VARCHAR(255),
+    email       VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    phone       VARCHAR(255),
+    role        VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    CONSTRAINT pk_user PRIMARY KEY (id),
+    CONSTRAINT uk_user_email UNIQUE (email)
+);
+
+CREATE TABLE address (
+    id             BIGINT       NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    user_id        BIGINT       NOT NULL,
+    full_name      VARCHAR(255),
+    phone          VARCHAR(255),
+    address_line1  VARCHAR(255),
+    address_line2  VARCHAR(255),
+    city           VARCHAR(255),
+    pincode        VARCHAR(255),
+    state          VARCHAR(255),
+    country        VARCHAR(255),
+    address_type   VARCHAR(255),
+    is_default     BOOLEAN,
+    CONSTRAINT pk_address PRIMARY KEY (id),
+    CONSTRAINT fk_address_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+
+CREATE TABLE product (
+    id           BIGINT       NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    name         VARCHAR(255) NOT NULL,
+    -- Mapped as TEXT, which DB2 does not have; V5 makes it a CLOB
+    description  VARCHAR(4000),
+    price        DOUBLE       NOT NULL,
+    quantity     INTEGER,
+    image_url    VARCHAR(512),
+    category     VARCHAR(100),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT pk_product PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+    id             BIGINT       NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    user_id        BIGINT       NOT NULL,
+    full_name      VARCHAR(255) NOT NULL,
+    phone          VARCHAR(255) NOT NULL,
+    address_line1  VARCHAR(255) NOT NULL,
+    address_line2  VARCHAR(255),
+    city           VARCHAR(255) NOT NULL,
+    pincode        VARCHAR(255) NOT NULL,
+    state          VARCHAR(255) NOT NULL,
+    country        VARCHAR(255) NOT NULL,
+    total_amount   DOUBLE       NOT NULL,
+    order_status   VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT pk_orders PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+
+CREATE TABLE order_items (
+    id          BIGINT   NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    order_id    BIGINT   NOT NULL,
+    product_id  BIGINT   NOT NULL,
+    quantity    INTEGER  NOT NULL,
+    price       DOUBLE   NOT NULL,
+    CONSTRAINT pk_order_items PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES product (id)
+);
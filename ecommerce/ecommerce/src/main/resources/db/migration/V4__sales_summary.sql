@@ -0,0 +1,11 @@
+-- Persisted sales rollups for the admin dashboard (SalesAnalytics)
+
+CREATE TABLE sales_summary (
+    dimension      VARCHAR(16)  NOT NULL,
+    dimension_key  VARCHAR(100) NOT NULL,
+    orders         BIGINT       NOT NULL,
+    units          BIGINT       NOT NULL,
+    amount         DOUBLE       NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_sales_summary PRIMARY KEY (dimension, dimension_key)
+);
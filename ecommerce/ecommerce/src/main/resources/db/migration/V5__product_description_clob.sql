@@ -0,0 +1,3 @@
+-- Product descriptions are stored as a CLOB. On DB2 the table may be left in reorg-pending
+-- state by the type change: run REORG TABLE product after this migration.
+ALTER TABLE product ALTER COLUMN description SET DATA TYPE CLOB;
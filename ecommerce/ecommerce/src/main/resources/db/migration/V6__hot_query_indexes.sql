@@ -0,0 +1,23 @@
+-- Indexes for the filters, joins and sort orders of the repository queries.
+-- RepositoryQueryPlanTest checks each query's plan against them.
+
+-- OrderRepository.findByUserId, findWithItemsByUserIdOrderByCreatedAtDesc: order history, newest first
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at DESC);
+
+-- OrderRepository.findAllWithItemsByOrderByCreatedAtDesc: admin list, newest first
+CREATE INDEX idx_orders_created ON orders (created_at DESC);
+
+-- OrderRepository.lockStatusesWhere: status filter walked in id order for bulk status changes
+CREATE INDEX idx_orders_status_id ON orders (order_status, id);
+
+-- Order lines of an order (history fetch joins), and of a product (product totals, deletes)
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+CREATE INDEX idx_order_items_product ON order_items (product_id);
+
+-- AddressRepository.findByUserId
+CREATE INDEX idx_address_user ON address (user_id);
+
+-- ProductRepository.pageAfter with a category (ProductService.getProductPage): keyset pages within the category
+CREATE INDEX idx_product_category_id ON product (category, id);
+
+-- user.email is covered by the uk_user_email unique constraint (UserRepository.findByEmail)
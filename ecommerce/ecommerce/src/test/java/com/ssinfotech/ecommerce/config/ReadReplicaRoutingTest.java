@@ -0,0 +1,208 @@
+package com.ssinfotech.ecommerce.config;
+
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read/write routing with two in-memory databases. Nothing replicates between them on its own:
+ * replicate() copies the primary into the replica, so anything written since the last copy is
+ * "lag". Read-only transactions see the replica unless it lags too much or the user has just
+ * placed an order.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=DB2;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=jdbc:h2:mem:routing-replica;MODE=DB2;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+        "app.datasource.replica.max-lag=5s",
+        "app.datasource.replica.lag-check-interval=1h",
+        "app.datasource.replica.read-your-writes-window=1s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private Long userId;
+    private String userToken;
+    private String adminToken;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        User user = newUser("Replica Buyer");
+        userId = userRepository.save(user).getId();
+        userToken = "Bearer " + tokenService.issue(tokenService.newClaims(userId, user.getEmail(), "USER"));
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+
+        productId = productRepository.save(newProduct("Syringe pump", 300.0, 1000)).getId();
+
+        new JdbcTemplate(primaryDataSource).execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds INT)");
+        replicate();
+        setReplicaLag(0);
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() throws Exception {
+        double replicaReads = replicaConnections();
+        Long orderId = placeOrderAndWaitOutTheWindow();
+
+        // Not replicated yet: the admin listing comes from the replica and misses the order
+        mockMvc.perform(get("/api/orders").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", not(hasItem(orderId.intValue()))));
+        assertThat(replicaConnections()).isGreaterThan(replicaReads);
+
+        replicate();
+        mockMvc.perform(get("/api/orders").header("Authorization", adminToken))
+                .andExpect(jsonPath("$[*].id", hasItem(orderId.intValue())));
+    }
+
+    @Test
+    void buyerReadsTheirOwnOrderRightAfterPlacingIt() throws Exception {
+        Long orderId = orderService.placeOrder(userId, newOrder(), items()).getId();
+
+        mockMvc.perform(get("/api/orders/user").header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(orderId.intValue())));
+        // Other users are not pinned
+        mockMvc.perform(get("/api/orders").header("Authorization", adminToken))
+                .andExpect(jsonPath("$[*].id", not(hasItem(orderId.intValue()))));
+
+        // After the window the buyer reads from the replica again
+        Thread.sleep(1100);
+        mockMvc.perform(get("/api/orders/user").header("Authorization", userToken))
+                .andExpect(jsonPath("$[*].id", not(hasItem(orderId.intValue()))));
+    }
+
+    @Test
+    void replicaIsBypassedWhileItLagsMoreThanTolerated() throws Exception {
+        Long orderId = placeOrderAndWaitOutTheWindow();
+
+        setReplicaLag(60);
+        assertThat(lagMonitor.isUsable()).isFalse();
+        mockMvc.perform(get("/api/orders").header("Authorization", adminToken))
+                .andExpect(jsonPath("$[*].id", hasItem(orderId.intValue())));
+
+        setReplicaLag(2);
+        assertThat(lagMonitor.isUsable()).isTrue();
+        mockMvc.perform(get("/api/orders").header("Authorization", adminToken))
+                .andExpect(jsonPath("$[*].id", not(hasItem(orderId.intValue()))));
+    }
+
+    @Test
+    void replicaNeedsALagQueryAndIsNotUsedBeforeItsFirstCheck() {
+        assertThatThrownBy(() -> new ReplicaLagMonitor(replicaDataSource, " ", Duration.ofSeconds(5)))
+                .hasMessageContaining("lag-query");
+        ReplicaLagMonitor unchecked = new ReplicaLagMonitor(replicaDataSource, "SELECT seconds FROM replica_lag",
+                Duration.ofSeconds(5));
+        assertThat(unchecked.isUsable()).isFalse();
+        unchecked.check();
+        assertThat(unchecked.isUsable()).isTrue();
+    }
+
+    @Test
+    void rowsReadFromTheReplicaAreNotAddedToTheSecondLevelCache() {
+        // The replica still has the old price
+        new JdbcTemplate(primaryDataSource).update("UPDATE product SET price = 350.0 WHERE id = ?", productId);
+        entityManagerFactory.getCache().evict(Product.class, productId);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Double replicaPrice = readOnly.execute(tx -> productRepository.findById(productId).orElseThrow().getPrice());
+        assertThat(replicaPrice).isEqualTo(300.0);
+        assertThat(entityManagerFactory.getCache().contains(Product.class, productId)).isFalse();
+
+        // Loaded from the primary, the current price is cached
+        Double primaryPrice = new TransactionTemplate(transactionManager).execute(tx ->
+                productRepository.findById(productId).orElseThrow().getPrice());
+        assertThat(primaryPrice).isEqualTo(350.0);
+        assertThat(entityManagerFactory.getCache().contains(Product.class, productId)).isTrue();
+    }
+
+    private Long placeOrderAndWaitOutTheWindow() throws InterruptedException {
+        Long orderId = orderService.placeOrder(userId, newOrder(), items()).getId();
+        Thread.sleep(1100);
+        return orderId;
+    }
+
+    // Stands in for replication: the replica becomes a copy of the primary as it is now
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NOPASSWORDS NOSETTINGS", String.class);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag (seconds) VALUES (0)");
+    }
+
+    private void setReplicaLag(int seconds) {
+        new JdbcTemplate(replicaDataSource).update("UPDATE replica_lag SET seconds = ?", seconds);
+        lagMonitor.check();
+    }
+
+    private double replicaConnections() {
+        return meterRegistry.get("db.routing.connections").tag("target", "replica").counter().count();
+    }
+
+    private List<OrderItem> items() {
+        return List.of(newItem(productId, 1));
+    }
+}
@@ -0,0 +1,107 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.Address;
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.AddressService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets for the address book endpoints.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AddressControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AddressService addressService;
+
+    private QueryBudget queryBudget;
+    private Long userId;
+    private String userToken;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+
+        User user = newUser("Address Owner");
+        userId = userRepository.save(user).getId();
+        userToken = "Bearer " + tokenService.issue(tokenService.newClaims(userId, user.getEmail(), "USER"));
+    }
+
+    // The addresses, plus one SELECT for the (shared) eagerly loaded owner
+    @Test
+    void addressListForTwentyAddressesUsesAtMostTwoQueries() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            addressService.addAddress(userId, newAddress("Ward " + i));
+        }
+
+        queryBudget.assertAtMost(2, "GET /api/addresses/user/{userId}", () ->
+                mockMvc.perform(get("/api/addresses/user/" + userId).header("Authorization", userToken))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(20)));
+    }
+
+    // Owner lookup, id sequence, INSERT
+    @Test
+    void addingAnAddressIsAtMostThreeStatements() throws Exception {
+        queryBudget.assertAtMost(3, "POST /api/addresses/user/{userId}", () ->
+                mockMvc.perform(post("/api/addresses/user/" + userId).header("Authorization", userToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(newAddress("Main wing"))))
+                        .andExpect(status().isOk()));
+    }
+
+    // Address lookup (joined with its owner) and the UPDATE
+    @Test
+    void updatingAnAddressIsAtMostTwoStatements() throws Exception {
+        Long addressId = addressService.addAddress(userId, newAddress("Old wing")).getId();
+
+        queryBudget.assertAtMost(2, "PUT /api/addresses/{addressId}", () ->
+                mockMvc.perform(put("/api/addresses/" + addressId).header("Authorization", userToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(newAddress("New wing"))))
+                        .andExpect(status().isOk()));
+    }
+
+    private static Address newAddress(String line1) {
+        Address address = new Address();
+        address.setFullName("Ward Supplies");
+        address.setPhone("9999999999");
+        address.setAddressLine1(line1);
+        address.setCity("Pune");
+        address.setPincode("411001");
+        address.setState("MH");
+        address.setCountry("India");
+        return address;
+    }
+}
@@ -0,0 +1,133 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.dto.OrderHandle;
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.OrderIngestionQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/orders?async=true: the order is queued and answered with 202 and a handle, the
+ * handle is polled to its outcome by its owner only, and a full queue or an interrupted submit
+ * is a 503 the client may retry.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AsyncOrderTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @MockitoSpyBean
+    private OrderIngestionQueue orderIngestionQueue;
+
+    private String userToken;
+    private String otherToken;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(newUser("Async Buyer"));
+        // POST /api/orders is restricted to ADMIN in SecurityConfig, so the buyer is an admin account
+        userToken = "Bearer " + tokenService.issue(tokenService.newClaims(user.getId(), user.getEmail(), "ADMIN"));
+        User other = userRepository.save(newUser("Other Buyer"));
+        otherToken = "Bearer " + tokenService.issue(tokenService.newClaims(other.getId(), other.getEmail(), "ADMIN"));
+        productId = productRepository.save(newProduct("Ventilator filter", 40.0, 100)).getId();
+    }
+
+    @AfterEach
+    void clearInterrupt() {
+        Thread.interrupted();
+    }
+
+    @Test
+    void queuedOrderIsPolledToItsOutcome() throws Exception {
+        String body = placeOrder()
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value(OrderHandle.QUEUED))
+                .andReturn().getResponse().getContentAsString();
+        String handle = objectMapper.readValue(body, OrderHandle.class).getHandle();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> OrderHandle.COMMITTED.equals(pollStatus(handle)));
+        mockMvc.perform(get("/api/orders/pending/" + handle).header("Authorization", userToken))
+                .andExpect(jsonPath("$.orderId").isNumber());
+        mockMvc.perform(get("/api/orders/pending/" + handle).header("Authorization", otherToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void fullQueueIsReportedAsServiceUnavailable() throws Exception {
+        doReturn(Optional.empty()).when(orderIngestionQueue).submit(any(), any(), anyList());
+
+        placeOrder()
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void interruptedSubmitIsServiceUnavailableAndKeepsTheInterrupt() throws Exception {
+        doThrow(new InterruptedException()).when(orderIngestionQueue).submit(any(), any(), anyList());
+
+        placeOrder()
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        assertThat(Thread.interrupted()).isTrue();
+    }
+
+    private ResultActions placeOrder() throws Exception {
+        OrderController.OrderRequest request = new OrderController.OrderRequest();
+        request.setOrder(newOrder());
+        request.setOrderItems(List.of(newItem(productId, 1)));
+        return mockMvc.perform(post("/api/orders").param("async", "true").header("Authorization", userToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private String pollStatus(String handle) throws Exception {
+        String body = mockMvc.perform(get("/api/orders/pending/" + handle).header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, OrderHandle.class).getStatus();
+    }
+}
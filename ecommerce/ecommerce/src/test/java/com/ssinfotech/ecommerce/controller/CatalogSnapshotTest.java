@@ -0,0 +1,165 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.CatalogSnapshotService;
+import com.ssinfotech.ecommerce.service.InventoryService;
+import com.ssinfotech.ecommerce.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/products served from the pre-serialized catalog snapshot: the bytes match what Jackson
+ * would produce, are reused across requests until a product changes, stock reservations are
+ * picked up in the background, and the bytes come gzip-encoded (with their own ETag) when the
+ * client accepts it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogSnapshotTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private QueryBudget queryBudget;
+    private String adminToken;
+    private String category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+        category = "Snapshot " + UUID.randomUUID();
+
+        Product product = new Product();
+        product.setName("Infusion pump");
+        product.setPrice(800.0);
+        product.setQuantity(4);
+        product.setCategory(category);
+        this.product = productService.saveProduct(product);
+    }
+
+    @Test
+    void catalogIsServedFromReusedBytesUntilAProductChanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/json"))
+                .andReturn();
+        assertThat(result.getResponse().getContentAsString())
+                .isEqualTo(objectMapper.writeValueAsString(productService.getAllProducts()));
+
+        CatalogSnapshotService.Entry snapshot = productService.getCatalogSnapshot(null);
+        queryBudget.assertAtMost(0, "GET /api/products from the snapshot", () ->
+                mockMvc.perform(get("/api/products").header("Authorization", adminToken))
+                        .andExpect(status().isOk()));
+        assertThat(productService.getCatalogSnapshot(null).json()).isSameAs(snapshot.json());
+
+        product.setName("Infusion pump, dual channel");
+        productService.saveProduct(product);
+        CatalogSnapshotService.Entry rebuilt = productService.getCatalogSnapshot(null);
+        assertThat(rebuilt.eTag()).isNotEqualTo(snapshot.eTag());
+        assertThat(new String(rebuilt.json(), StandardCharsets.UTF_8)).contains("dual channel");
+    }
+
+    @Test
+    void stockReservationsAreRebuiltInTheBackgroundWhileReadersGetThePreviousSnapshot() throws Exception {
+        CatalogSnapshotService.Entry snapshot = productService.getCatalogSnapshot(category);
+        transactionTemplate.executeWithoutResult(tx -> inventoryService.reserve(Map.of(product.getId(), 1)));
+
+        // No rebuild on the reader's thread: same bytes, no SQL
+        queryBudget.assertAtMost(0, "GET /api/products after a stock reservation", () ->
+                mockMvc.perform(get("/api/products").param("category", category).header("Authorization", adminToken))
+                        .andExpect(status().isOk()));
+        assertThat(productService.getCatalogSnapshot(category).json()).isSameAs(snapshot.json());
+
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                new String(productService.getCatalogSnapshot(category).json(), StandardCharsets.UTF_8).contains("\"quantity\":3"));
+        assertThat(productService.getCatalogSnapshot(category).eTag()).isNotEqualTo(snapshot.eTag());
+    }
+
+    @Test
+    void gzipIsSentWithItsOwnETagWhenAccepted() throws Exception {
+        MvcResult plain = mockMvc.perform(get("/api/products").header("Authorization", adminToken))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+        MvcResult gzipped = mockMvc.perform(get("/api/products").header("Authorization", adminToken)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        assertThat(gunzip(gzipped.getResponse().getContentAsByteArray()))
+                .isEqualTo(plain.getResponse().getContentAsByteArray());
+        String gzipETag = gzipped.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(gzipETag).isNotEqualTo(plain.getResponse().getHeader(HttpHeaders.ETAG)).endsWith("-gz\"");
+
+        mockMvc.perform(get("/api/products").header("Authorization", adminToken)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products").header("Authorization", adminToken)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void categorySliceHoldsOnlyThatCategory() throws Exception {
+        String json = mockMvc.perform(get("/api/products").param("category", category).header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Product[] products = objectMapper.readValue(json, Product[].class);
+        assertThat(products).extracting(Product::getId).containsExactly(product.getId());
+
+        mockMvc.perform(get("/api/products").param("category", "No such category").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.IdempotencyStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/orders with an Idempotency-Key: a retry gets the first response back without
+ * touching the database, a reused key with a different body is rejected, failures are neither
+ * remembered nor replayed, and concurrent duplicates wait for the first request instead of running again, however
+ * long it runs.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotentOrderTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private String userToken;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        User user = newUser("Idempotent Buyer");
+        userId = userRepository.save(user).getId();
+        // POST /api/orders is restricted to ADMIN in SecurityConfig, so the buyer is an admin account
+        userToken = "Bearer " + tokenService.issue(tokenService.newClaims(userId, user.getEmail(), "ADMIN"));
+
+        product = productRepository.save(newProduct("Infusion pump", 800.0, 10));
+    }
+
+    @Test
+    void retryReplaysTheFirstResponseWithoutPlacingAnotherOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String first = placeOrder(key, 2)
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "false"))
+                .andReturn().getResponse().getContentAsString();
+
+        // The replay is served from the store: same body, no SQL
+        new QueryBudget(sqlStatementCounter).assertAtMost(0, "replayed POST /api/orders", () ->
+                placeOrder(key, 2)
+                        .andExpect(status().isCreated())
+                        .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"))
+                        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                        .andExpect(content().string(first)));
+        assertThat(orderCount()).isEqualTo(1);
+
+        // Same key, different order
+        placeOrder(key, 3).andExpect(status().isUnprocessableEntity());
+        assertThat(orderCount()).isEqualTo(1);
+
+        // A different key is a different order
+        placeOrder(UUID.randomUUID().toString(), 2).andExpect(status().isCreated());
+        assertThat(orderCount()).isEqualTo(2);
+    }
+
+    @Test
+    void failedRequestIsNotRememberedSoTheRetryRuns() throws Exception {
+        String key = UUID.randomUUID().toString();
+        placeOrder(key, 11).andExpect(status().isBadRequest());
+
+        product.setQuantity(20);
+        productRepository.save(product);
+        placeOrder(key, 11)
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "false"));
+        assertThat(orderCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keyLongerThanTheLimitIsRejected() throws Exception {
+        placeOrder("k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1), 1).andExpect(status().isBadRequest());
+        assertThat(orderCount()).isZero();
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IdempotencyStore.StoredResponse created = new IdempotencyStore.StoredResponse(201, new HttpHeaders(),
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<IdempotencyStore.Outcome> first = executor.submit(() -> store.execute(1L, "key", "body", () -> {
+                runs.incrementAndGet();
+                running.countDown();
+                await(release);
+                return created;
+            }));
+            running.await(5, TimeUnit.SECONDS);
+
+            List<Future<IdempotencyStore.Outcome>> duplicates = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                duplicates.add(executor.submit(() -> store.execute(1L, "key", "body", () -> {
+                    runs.incrementAndGet();
+                    return created;
+                })));
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+            for (Future<IdempotencyStore.Outcome> duplicate : duplicates) {
+                IdempotencyStore.Outcome outcome = duplicate.get(5, TimeUnit.SECONDS);
+                assertThat(outcome.replayed()).isTrue();
+                assertThat(outcome.response()).isSameAs(created);
+            }
+            assertThat(runs).hasValue(1);
+
+            // Keys are per user
+            assertThat(store.execute(2L, "key", "body", () -> created).replayed()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void duplicatesOfAFailedRequestRunInsteadOfReplayingTheFailure() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IdempotencyStore.StoredResponse failed = new IdempotencyStore.StoredResponse(400, new HttpHeaders(),
+                "Failed to place order".getBytes(StandardCharsets.UTF_8));
+        IdempotencyStore.StoredResponse created = new IdempotencyStore.StoredResponse(201, new HttpHeaders(),
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<IdempotencyStore.Outcome> first = executor.submit(() -> store.execute(1L, "key", "body", () -> {
+                runs.incrementAndGet();
+                running.countDown();
+                await(release);
+                return failed;
+            }));
+            running.await(5, TimeUnit.SECONDS);
+
+            List<Future<IdempotencyStore.Outcome>> duplicates = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                duplicates.add(executor.submit(() -> store.execute(1L, "key", "body", () -> {
+                    runs.incrementAndGet();
+                    return created;
+                })));
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).response()).isSameAs(failed);
+            // One duplicate runs in place of the failed request and the others replay its success
+            int replayed = 0;
+            for (Future<IdempotencyStore.Outcome> duplicate : duplicates) {
+                IdempotencyStore.Outcome outcome = duplicate.get(5, TimeUnit.SECONDS);
+                assertThat(outcome.response()).isSameAs(created);
+                replayed += outcome.replayed() ? 1 : 0;
+            }
+            assertThat(replayed).isEqualTo(2);
+            assertThat(runs).hasValue(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void runningRequestIsNeitherEvictedNorExpired() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(1, Duration.ofMillis(1), Duration.ofMillis(50));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IdempotencyStore.StoredResponse created = new IdempotencyStore.StoredResponse(201, new HttpHeaders(),
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotencyStore.Outcome> first = executor.submit(() -> store.execute(1L, "slow", "body", () -> {
+                runs.incrementAndGet();
+                running.countDown();
+                await(release);
+                return created;
+            }));
+            running.await(5, TimeUnit.SECONDS);
+
+            // Push the store past its size bound and the running entry past the TTL
+            for (int i = 0; i < 10; i++) {
+                store.execute(1L, "other-" + i, "body", () -> created);
+            }
+            Thread.sleep(20);
+
+            // The duplicate still finds the first request and times out waiting for it instead of running
+            IdempotencyStore.Outcome duplicate = store.execute(1L, "slow", "body", () -> {
+                runs.incrementAndGet();
+                return created;
+            });
+            assertThat(duplicate.response().status()).isEqualTo(409);
+            assertThat(runs).hasValue(1);
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ResultActions placeOrder(String key, int quantity) throws Exception {
+        OrderController.OrderRequest request = new OrderController.OrderRequest();
+        request.setOrder(newOrder());
+        request.setOrderItems(List.of(newItem(product.getId(), quantity)));
+        return mockMvc.perform(post("/api/orders").header("Authorization", userToken)
+                .header(IdempotencyStore.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private long orderCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE user_id = ?", Long.class, userId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
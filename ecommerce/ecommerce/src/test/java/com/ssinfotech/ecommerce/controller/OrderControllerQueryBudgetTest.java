@@ -0,0 +1,162 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets for the order endpoints. A budget that stops holding usually means
+ * a lazy association started loading per row; the failure message lists the statements.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private QueryBudget queryBudget;
+    private Long userId;
+    private String userToken;
+    private String adminToken;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+
+        User user = newUser("Budget Buyer");
+        userId = userRepository.save(user).getId();
+        // POST /api/orders is restricted to ADMIN in SecurityConfig, so the buyer is an admin account
+        userToken = "Bearer " + tokenService.issue(tokenService.newClaims(userId, user.getEmail(), "ADMIN"));
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            products.add(newProduct("Budget product " + i, 10.0 + i, 100_000));
+        }
+        productIds = productRepository.saveAll(products).stream().map(Product::getId).toList();
+    }
+
+    @Test
+    void orderHistoryForFiftyOrdersUsesAtMostTwoQueries() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            orderService.placeOrder(userId, newOrder(), newItems(3));
+        }
+
+        queryBudget.assertAtMost(2, "GET /api/orders/user", () ->
+                mockMvc.perform(get("/api/orders/user").header("Authorization", userToken))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(50))
+                        .andExpect(jsonPath("$[0].items.length()").value(3)));
+    }
+
+    // User, products (one IN query), id sequences, order insert, item insert batch, stock reservation batch
+    @Test
+    void placingAnOrderCostsTheSameNumberOfStatementsForFiveOrFiftyItems() throws Exception {
+        List<String> small = queryBudget.assertAtMost(8, "POST /api/orders with 5 items", () -> placeOrder(5));
+        List<String> large = queryBudget.assertAtMost(8, "POST /api/orders with 50 items", () -> placeOrder(50));
+
+        // Sequence calls depend on where the pooled id blocks happen to end, not on the item count
+        assertThat(withoutSequenceCalls(large)).hasSameSizeAs(withoutSequenceCalls(small));
+    }
+
+    @Test
+    void allOrdersForAdminUsesOneQuery() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            orderService.placeOrder(userId, newOrder(), newItems(3));
+        }
+
+        queryBudget.assertAtMost(1, "GET /api/orders", () ->
+                mockMvc.perform(get("/api/orders").header("Authorization", adminToken))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[0].items.length()").value(3)));
+    }
+
+    @Test
+    void bulkStatusUpdateIsSetBased() throws Exception {
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            orderIds.add(orderService.placeOrder(userId, newOrder(), newItems(1)).getId());
+        }
+
+        // One locking SELECT for the previous statuses and one UPDATE, whatever the number of orders
+        queryBudget.assertAtMost(2, "PUT /api/orders/status for 30 orders", () ->
+                mockMvc.perform(put("/api/orders/status").header("Authorization", adminToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("orderIds", orderIds, "status", "SHIPPED"))))
+                        .andExpect(status().isOk()));
+    }
+
+    private void placeOrder(int items) throws Exception {
+        OrderController.OrderRequest request = new OrderController.OrderRequest();
+        request.setOrder(newOrder());
+        request.setOrderItems(newItems(items));
+        mockMvc.perform(post("/api/orders").header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.userId").value(userId.intValue()))
+                .andExpect(jsonPath("$.items.length()").value(items))
+                .andExpect(jsonPath("$.user").doesNotExist())
+                .andExpect(content().string(not(containsString("password"))));
+    }
+
+    private static List<String> withoutSequenceCalls(List<String> statements) {
+        return statements.stream().filter(sql -> !sql.startsWith("select next value for")).toList();
+    }
+
+    private List<OrderItem> newItems(int count) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(newItem(productIds.get(i), 1));
+        }
+        return items;
+    }
+}
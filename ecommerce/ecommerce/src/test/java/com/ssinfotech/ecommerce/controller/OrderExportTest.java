@@ -0,0 +1,135 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.dto.OrderSummary;
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/orders/export: one JSON order header per line, in id order, with the status and the
+ * [from, to) creation time filters applied alone or together. Admins only.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String adminToken;
+    private Long userId;
+    private String exported;
+    private List<Order> orders;
+
+    @BeforeEach
+    void setUp() {
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+        userId = userRepository.save(newUser("Export Buyer")).getId();
+        Long productId = productRepository.save(newProduct("Glucometer strips", 8.0, 100)).getId();
+        orders = new ArrayList<>();
+        for (int quantity = 1; quantity <= 3; quantity++) {
+            orders.add(orderService.placeOrder(userId, newOrder(), List.of(newItem(productId, quantity))));
+        }
+        // Only the first and last orders are in the status exported below
+        exported = "EXPORTED-" + UUID.randomUUID();
+        orderService.updateOrderStatuses(List.of(orders.get(0).getId(), orders.get(2).getId()), exported);
+    }
+
+    @Test
+    void statusFilterListsTheMatchingOrdersInIdOrder() throws Exception {
+        List<OrderSummary> lines = export(get("/api/orders/export").param("status", exported));
+
+        assertThat(lines).extracting(OrderSummary::getId)
+                .containsExactly(orders.get(0).getId(), orders.get(2).getId());
+        assertThat(lines).extracting(OrderSummary::getUserId).containsOnly(userId);
+        assertThat(lines).extracting(OrderSummary::getTotalAmount).containsExactly(8.0, 24.0);
+        assertThat(lines).extracting(OrderSummary::getOrderStatus).containsOnly(exported);
+        assertThat(lines).extracting(OrderSummary::getCity).containsOnly("Pune");
+    }
+
+    @Test
+    void timeRangeIsAppliedWithTheStatus() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(export(get("/api/orders/export").param("status", exported)
+                .param("from", now.minusHours(1).toString()).param("to", now.plusHours(1).toString())))
+                .hasSize(2);
+        assertThat(export(get("/api/orders/export").param("status", exported)
+                .param("from", now.plusHours(1).toString())))
+                .isEmpty();
+        assertThat(export(get("/api/orders/export").param("status", exported)
+                .param("to", now.minusHours(1).toString())))
+                .isEmpty();
+        // Without a status, the range alone still includes the order in the other status
+        assertThat(export(get("/api/orders/export")
+                .param("from", now.minusHours(1).toString())))
+                .extracting(OrderSummary::getId)
+                .contains(orders.get(1).getId());
+    }
+
+    @Test
+    void exportIsForAdminsOnly() throws Exception {
+        String userToken = "Bearer " + tokenService.issue(tokenService.newClaims(userId, "export@example.com", "USER"));
+
+        mockMvc.perform(get("/api/orders/export").header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private List<OrderSummary> export(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request.header("Authorization", adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<OrderSummary> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readValue(line, OrderSummary.class));
+            }
+        }
+        assertThat(body.isEmpty() || body.endsWith("\n")).isTrue();
+        return lines;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/orders/user: the caller's own orders as history entries, each with its item lines
+ * carrying the product id and name and the price paid, and nothing of the customer record.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderHistoryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private User buyer;
+    private Long first;
+    private Long second;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        buyer = userRepository.save(newUser("History Buyer"));
+        User other = userRepository.save(newUser("Other Buyer"));
+        productId = productRepository.save(newProduct("Pulse oximeter", 40.0, 100)).getId();
+        first = orderService.placeOrder(buyer.getId(), newOrder(), List.of(newItem(productId, 1))).getId();
+        second = orderService.placeOrder(buyer.getId(), newOrder(), List.of(newItem(productId, 2))).getId();
+        orderService.placeOrder(other.getId(), newOrder(), List.of(newItem(productId, 3)));
+    }
+
+    @Test
+    void historyListsOnlyTheCallersOrdersWithTheirLines() throws Exception {
+        String token = "Bearer " + tokenService.issue(tokenService.newClaims(buyer.getId(), buyer.getEmail(), "USER"));
+
+        mockMvc.perform(get("/api/orders/user").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].id").value(containsInAnyOrder(first.intValue(), second.intValue())))
+                .andExpect(jsonPath("$[*].totalAmount").value(containsInAnyOrder(40.0, 80.0)))
+                .andExpect(jsonPath("$[0].items.length()").value(1))
+                .andExpect(jsonPath("$[0].items[0].productId").value(productId.intValue()))
+                .andExpect(jsonPath("$[0].items[0].productName").value("Pulse oximeter"))
+                .andExpect(jsonPath("$[0].items[0].price").value(40.0))
+                .andExpect(jsonPath("$[0].user").doesNotExist());
+    }
+}
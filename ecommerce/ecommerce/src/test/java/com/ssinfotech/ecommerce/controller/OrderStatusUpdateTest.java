@@ -0,0 +1,88 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.ssinfotech.ecommerce.repository.OrderRepository;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PUT /api/orders/{orderId}/status without open-in-view, as in the virtual-thread profile: the
+ * response is serialized after the transaction has ended, so it must not touch lazy associations.
+ */
+@SpringBootTest(properties = "spring.jpa.open-in-view=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderStatusUpdateTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String adminToken;
+    private Long orderId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+        Long userId = userRepository.save(newUser("Status Buyer")).getId();
+        productId = productRepository.save(newProduct("Infusion stand", 75.0, 20)).getId();
+        orderId = orderService.placeOrder(userId, newOrder(), List.of(newItem(productId, 2))).getId();
+    }
+
+    @Test
+    void updatedOrderIsReturnedWithItsLines() throws Exception {
+        mockMvc.perform(put("/api/orders/{orderId}/status", orderId)
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(orderId.intValue()))
+                .andExpect(jsonPath("$.orderStatus").value("SHIPPED"))
+                .andExpect(jsonPath("$.totalAmount").value(150.0))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].productId").value(productId.intValue()))
+                .andExpect(jsonPath("$.items[0].productName").value("Infusion stand"))
+                .andExpect(jsonPath("$.user").doesNotExist());
+
+        assertThat(orderRepository.findById(orderId).orElseThrow().getOrderStatus()).isEqualTo("SHIPPED");
+    }
+
+    @Test
+    void unknownOrderIsNotFound() throws Exception {
+        mockMvc.perform(put("/api/orders/{orderId}/status", -1L)
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,144 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.InventoryService;
+import com.ssinfotech.ecommerce.service.ProductCatalogCache;
+import com.ssinfotech.ecommerce.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag / Last-Modified on product reads: revalidation answers 304 without touching the database,
+ * and any product write, stock reservation or delete changes the validators.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private QueryBudget queryBudget;
+    private String adminToken;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+
+        Product product = new Product();
+        product.setName("Patient monitor");
+        product.setPrice(1200.0);
+        product.setQuantity(10);
+        productId = productService.saveProduct(product).getId();
+    }
+
+    @Test
+    void productRevalidationIsAnswered304WithoutLoadingIt() throws Exception {
+        String url = "/api/products/" + productId;
+        MvcResult first = mockMvc.perform(get(url).header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"p" + productId + "-");
+
+        productCatalogCache.invalidateAll();
+        queryBudget.assertAtMost(0, "conditional GET /api/products/{id}", () ->
+                mockMvc.perform(get(url).header("Authorization", adminToken).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                        .andExpect(content().string("")));
+
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        mockMvc.perform(get(url).header("Authorization", adminToken).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void updatingAProductChangesItsETag() throws Exception {
+        String url = "/api/products/" + productId;
+        String before = eTagOf(url);
+
+        Product changes = new Product();
+        changes.setName("Patient monitor, 12 inch");
+        changes.setPrice(1300.0);
+        changes.setQuantity(10);
+        mockMvc.perform(put(url).header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(url).header("Authorization", adminToken).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("12 inch")));
+        assertThat(eTagOf(url)).isNotEqualTo(before);
+    }
+
+    @Test
+    void catalogRevalidationIsAnswered304UntilSomethingChanges() throws Exception {
+        String eTag = eTagOf("/api/products");
+        assertThat(eTag).startsWith("\"c");
+
+        productCatalogCache.invalidateAll();
+        queryBudget.assertAtMost(0, "conditional GET /api/products", () ->
+                mockMvc.perform(get("/api/products").header("Authorization", adminToken).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                        .andExpect(status().isNotModified()));
+
+        // A committed order changes stock, and with it the listing once the background rebuild has run
+        transactionTemplate.executeWithoutResult(tx -> inventoryService.reserve(Map.of(productId, 1)));
+        await().atMost(Duration.ofSeconds(5)).until(() -> !eTagOf("/api/products").equals(eTag));
+        String afterOrder = eTagOf("/api/products");
+
+        productService.deleteProductById(productId);
+        assertThat(eTagOf("/api/products")).isNotEqualTo(afterOrder);
+    }
+
+    private String eTagOf(String url) throws Exception {
+        return mockMvc.perform(get(url).header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
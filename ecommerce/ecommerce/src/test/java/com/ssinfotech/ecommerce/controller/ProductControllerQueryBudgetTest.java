@@ -0,0 +1,118 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.ProductCatalogCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets for the catalog endpoints: reads are served from the cache and the
+ * in-memory indexes once warm, and a page of products is a single query.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    private QueryBudget queryBudget;
+    private String adminToken;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Product product = new Product();
+            product.setName("Infusion pump " + i);
+            product.setCategory(i % 2 == 0 ? "Infusion" : "Monitoring");
+            product.setPrice(100.0 + i);
+            product.setQuantity(10);
+            products.add(product);
+        }
+        productIds = productRepository.saveAll(products).stream().map(Product::getId).toList();
+        productCatalogCache.invalidateAll();
+    }
+
+    @Test
+    void fullCatalogIsOneQueryColdAndNoneWarm() throws Exception {
+        queryBudget.assertAtMost(1, "GET /api/products (cold cache)", () -> getOk("/api/products"));
+        queryBudget.assertAtMost(0, "GET /api/products (warm cache)", () -> getOk("/api/products"));
+    }
+
+    @Test
+    void productByIdIsOneQueryColdAndNoneWarm() throws Exception {
+        String url = "/api/products/" + productIds.get(0);
+        queryBudget.assertAtMost(1, "GET /api/products/{id} (cold cache)", () -> getOk(url));
+        queryBudget.assertAtMost(0, "GET /api/products/{id} (warm cache)", () -> getOk(url));
+    }
+
+    @Test
+    void pageOfProductsIsOneQuery() throws Exception {
+        queryBudget.assertAtMost(1, "GET /api/products/page", () ->
+                mockMvc.perform(get("/api/products/page").param("size", "50").param("category", "Infusion")
+                                .header("Authorization", adminToken))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.items.length()").value(50)));
+    }
+
+    @Test
+    void searchFacetsAndAutocompleteDoNotTouchTheDatabase() throws Exception {
+        queryBudget.assertAtMost(0, "GET /api/products/search", () -> getOk("/api/products/search?q=infusion+pu"));
+        queryBudget.assertAtMost(0, "GET /api/products/autocomplete", () -> getOk("/api/products/autocomplete?prefix=inf"));
+        queryBudget.assertAtMost(0, "GET /api/products/facets", () -> getOk("/api/products/facets"));
+    }
+
+    // Lookup (cached or not), the merge's SELECT, and the UPDATE
+    @Test
+    void updatingAProductIsAtMostThreeStatements() throws Exception {
+        Product changes = new Product();
+        changes.setName("Infusion pump, updated");
+        changes.setPrice(150.0);
+        changes.setQuantity(5);
+
+        queryBudget.assertAtMost(3, "PUT /api/products/{id}", () ->
+                mockMvc.perform(put("/api/products/" + productIds.get(1)).header("Authorization", adminToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(changes)))
+                        .andExpect(status().isOk()));
+    }
+
+    private void getOk(String url) throws Exception {
+        mockMvc.perform(get(url).header("Authorization", adminToken)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,202 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.dto.ProductImportResult;
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import com.ssinfotech.ecommerce.service.ProductImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/products/import: CSV and JSON-lines uploads upsert by sku in batches, skip invalid
+ * rows with a line-numbered report, keep what was imported when the upload breaks off, and a
+ * large import costs a handful of statements per chunk.
+ */
+@SpringBootTest(properties = "catalog.import.batch-size=200")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductImportService productImportService;
+
+    private QueryBudget queryBudget;
+    private String adminToken;
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+        prefix = UUID.randomUUID().toString().substring(0, 8) + "-";
+    }
+
+    @Test
+    void csvRowsAreUpsertedBySkuAndBadRowsReported() throws Exception {
+        String csv = "sku,name,description,price,quantity,category\r\n"
+                + prefix + "1,Suction unit,\"Portable, 2 l jar\nwith \"\"quiet\"\" motor\",450.5,3,Surgical\r\n"
+                + prefix + "2,Ventilator,,abc,1,ICU\r\n"
+                + prefix + "3,Defibrillator,,2100,2\r\n"
+                + "\r\n"
+                + prefix + "4,Stretcher,,300,,Transport\r\n";
+        ProductImportResult result = importCsv(csv);
+
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ProductImportResult.RowError::getLine).containsExactly(4L, 5L);
+        assertThat(result.getErrors().get(0).getSku()).isEqualTo(prefix + "2");
+        assertThat(result.getErrors().get(0).getMessage()).contains("price");
+
+        Map<String, Product> imported = bySku(prefix + "1", prefix + "4");
+        assertThat(imported.get(prefix + "1").getDescription()).isEqualTo("Portable, 2 l jar\nwith \"quiet\" motor");
+        assertThat(imported.get(prefix + "4").getQuantity()).isZero();
+
+        // Re-import: price changes, the empty quantity leaves the stock as it was
+        ProductImportResult again = importCsv("sku,name,price,quantity\n"
+                + prefix + "1,Suction unit,470,\n");
+        assertThat(again.getUpdated()).isEqualTo(1);
+        assertThat(again.getInserted()).isZero();
+        Product updated = bySku(prefix + "1").get(prefix + "1");
+        assertThat(updated.getPrice()).isEqualTo(470.0);
+        assertThat(updated.getQuantity()).isEqualTo(3);
+        assertThat(updated.getDescription()).startsWith("Portable");
+    }
+
+    @Test
+    void jsonLinesAreImportedAndUnreadableLinesReported() throws Exception {
+        String body = "{\"sku\":\"" + prefix + "1\",\"name\":\"Pulse oximeter\",\"price\":35,\"quantity\":40}\n"
+                + "{\"sku\":\"" + prefix + "2\",\"name\":\"Broken\n"
+                + "{\"sku\":\"" + prefix + "3\",\"name\":\"Scale\",\"price\":90,\"colour\":\"white\"}\n"
+                + "\n"
+                + "{\"sku\":\"" + prefix + "1\",\"name\":\"Pulse oximeter\",\"price\":32}\n";
+        String json = mockMvc.perform(post("/api/products/import").header("Authorization", adminToken)
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        ProductImportResult result = objectMapper.readValue(json, ProductImportResult.class);
+
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ProductImportResult.RowError::getLine).containsExactly(2L, 3L);
+        assertThat(result.getErrors().get(1).getMessage()).contains("colour");
+
+        Product oximeter = bySku(prefix + "1").get(prefix + "1");
+        assertThat(oximeter.getPrice()).isEqualTo(32.0);
+        assertThat(oximeter.getQuantity()).isEqualTo(40);
+    }
+
+    @Test
+    void unknownCsvColumnRejectsTheUpload() throws Exception {
+        mockMvc.perform(post("/api/products/import").header("Authorization", adminToken)
+                        .contentType("text/csv")
+                        .content("sku,name,price,colour\n1,a,1,red\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void largeImportIsSentInBatches() throws Exception {
+        int rows = 10_000;
+        StringBuilder csv = new StringBuilder("sku,name,price,quantity,category\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(prefix).append(i).append(",Catheter ").append(i).append(',')
+                    .append(10 + i % 90).append(',').append(i % 7).append(",Consumables\n");
+        }
+
+        List<String> statements = queryBudget.record(() -> {
+            ProductImportResult result = importCsv(csv.toString());
+            assertThat(result.getInserted()).isEqualTo(rows);
+            assertThat(result.getFailed()).isZero();
+        });
+        // Per 200-row chunk: one sku lookup, a few sequence calls and one INSERT batch
+        int chunks = rows / 200;
+        assertThat(statements).hasSizeLessThanOrEqualTo(chunks * 8);
+    }
+
+    @Test
+    void brokenUploadReportsTheRowsImportedBeforeIt() {
+        StringBuilder csv = new StringBuilder("sku,name,price\n");
+        for (int i = 0; i < 250; i++) {
+            csv.append(prefix).append(i).append(",Drip stand ").append(i).append(",25\n");
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        InputStream brokenOff = new SequenceInputStream(new ByteArrayInputStream(bytes), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        ProductImportResult result = productImportService.importCsv(brokenOff);
+
+        assertThat(result.isIncomplete()).isTrue();
+        assertThat(result.getError()).isEqualTo("Connection reset");
+        assertThat(result.getInserted()).isEqualTo(250);
+        assertThat(productRepository.findBySkuIn(Set.of(prefix + "0", prefix + "249"))).hasSize(2);
+    }
+
+    @Test
+    void skuIsUnique() {
+        Product first = newProduct("Bed rail", 80.0, 1);
+        first.setSku(prefix + "rail");
+        productRepository.save(first);
+        Product second = newProduct("Bed rail, long", 95.0, 1);
+        second.setSku(prefix + "rail");
+
+        assertThatThrownBy(() -> productRepository.save(second)).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private ProductImportResult importCsv(String csv) throws Exception {
+        String json = mockMvc.perform(post("/api/products/import").header("Authorization", adminToken)
+                        .contentType("text/csv")
+                        .content(csv.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, ProductImportResult.class);
+    }
+
+    private Map<String, Product> bySku(String... skus) {
+        return productRepository.findBySkuIn(List.of(skus)).stream()
+                .collect(Collectors.toMap(Product::getSku, Function.identity()));
+    }
+}
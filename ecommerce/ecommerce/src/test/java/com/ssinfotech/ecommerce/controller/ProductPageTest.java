@@ -0,0 +1,123 @@
+package com.ssinfotech.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssinfotech.ecommerce.dto.ProductPage;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/products/page: following nextCursor walks every matching product once, in id order,
+ * with each filter applied on its own or together, and rows removed behind the cursor do not
+ * shift the pages that follow.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductPageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String adminToken;
+    private String category;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+        category = "Paging " + UUID.randomUUID();
+        List<Product> unsaved = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Product product = newProduct("Paged item " + i, 10.0 * i, 1);
+            product.setCategory(category);
+            unsaved.add(product);
+        }
+        products = productRepository.saveAll(unsaved);
+    }
+
+    @Test
+    void cursorWalksTheCategoryOnceInIdOrder() throws Exception {
+        List<Long> seen = walk(7, null, null);
+
+        assertThat(seen).containsExactlyElementsOf(products.stream().map(Product::getId).sorted().toList());
+    }
+
+    @Test
+    void priceFiltersApplyAloneAndTogether() throws Exception {
+        assertThat(walk(4, 200.0, null)).hasSize(5);       // 200 .. 240
+        assertThat(walk(4, null, 45.0)).hasSize(5);        // 0 .. 40
+        assertThat(walk(4, 50.0, 100.0)).hasSize(6);       // 50 .. 100
+        assertThat(walk(4, 500.0, null)).isEmpty();
+    }
+
+    @Test
+    void productsRemovedBehindTheCursorDoNotShiftLaterPages() throws Exception {
+        ProductPage first = page(10, null, null, null);
+        List<Long> expectedNext = products.stream().map(Product::getId).sorted().skip(10).limit(10).toList();
+
+        // Deleting a product already seen would shift an offset-based page by one; a keyset page stays put
+        productRepository.deleteById(first.getItems().get(0).getId());
+
+        ProductPage second = page(10, first.getNextCursor(), null, null);
+        assertThat(second.getItems()).extracting(Product::getId).containsExactlyElementsOf(expectedNext);
+    }
+
+    // Ids of every page, following nextCursor until the last page
+    private List<Long> walk(int size, Double minPrice, Double maxPrice) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        Long cursor = null;
+        do {
+            ProductPage page = page(size, cursor, minPrice, maxPrice);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(size);
+            page.getItems().forEach(product -> {
+                assertThat(product.getCategory()).isEqualTo(category);
+                assertThat(product.getPrice()).isBetween(minPrice == null ? 0 : minPrice,
+                        maxPrice == null ? Double.MAX_VALUE : maxPrice);
+                ids.add(product.getId());
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private ProductPage page(int size, Long after, Double minPrice, Double maxPrice) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/products/page").header("Authorization", adminToken)
+                .param("size", Integer.toString(size))
+                .param("category", category);
+        if (after != null) {
+            request.param("after", after.toString());
+        }
+        if (minPrice != null) {
+            request.param("minPrice", minPrice.toString());
+        }
+        if (maxPrice != null) {
+            request.param("maxPrice", maxPrice.toString());
+        }
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, ProductPage.class);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ssinfotech.ecommerce.fixture;
+
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.model.User;
+
+import java.util.UUID;
+
+/**
+ * Unsaved entities shared by the tests and the benchmarks: customers with unique emails, stocked
+ * products, and orders and order lines shaped the way the order API receives them.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    // A customer whose email is derived from the name and unique across tests sharing a database
+    public static User newUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name.toLowerCase().replaceAll("[^a-z0-9]+", "-") + "-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        return user;
+    }
+
+    public static Product newProduct(String name, double price, int quantity) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        return product;
+    }
+
+    // An order with only its delivery details; totals and items are filled in when it is placed
+    public static Order newOrder() {
+        Order order = new Order();
+        order.setFullName("Ward 1 Procurement");
+        order.setPhone("9999999999");
+        order.setAddressLine1("1 Hospital Road");
+        order.setCity("Pune");
+        order.setPincode("411001");
+        order.setState("MH");
+        order.setCountry("India");
+        return order;
+    }
+
+    // An order line referring to the product by id only, as clients send it
+    public static OrderItem newItem(Long productId, int quantity) {
+        Product product = new Product();
+        product.setId(productId);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ssinfotech.ecommerce.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The scrape endpoint exposes request latency, SQL counts per request, service timers,
+ * Hibernate statistics, connection pool and cache meters.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability  // metrics export is disabled in tests by default
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void scrapeExposesApplicationMeters() throws Exception {
+        mockMvc.perform(get("/api/products/page").with(httpBasic("admin", "admin123")))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").with(httpBasic("admin", "admin123")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("http_server_sql_statements_count{method=\"GET\",uri=\"/api/products/page\"")
+                .contains("app_service_seconds_count{class=\"com.ssinfotech.ecommerce.service.ProductService\"")
+                .contains("db_statements_total")
+                .contains("hibernate_statements_total")
+                .contains("hikaricp_connections_acquire_seconds")
+                .contains("cache_gets_total{cache=\"security.principals\"");
+    }
+
+    @Test
+    void metricsRequireAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,75 @@
+package com.ssinfotech.ecommerce.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Query-budget assertions for integration tests.
+ * Records the SQL the test thread executes while running some work (MockMvc requests and
+ * TransactionTemplate callbacks run on the test thread) and fails when it exceeds a statement
+ * budget, or when one SELECT repeats often enough to look like an N+1 query.
+ */
+public class QueryBudget {
+
+    // The same SELECT text this many times in one unit of work is reported as N+1
+    public static final int N_PLUS_ONE_THRESHOLD = 3;
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    private final SqlStatementCounter counter;
+
+    public QueryBudget(SqlStatementCounter counter) {
+        this.counter = counter;
+    }
+
+    // Statements executed by the work, in order
+    public List<String> record(Work work) throws Exception {
+        List<String> statements;
+        counter.startRecording();
+        try {
+            work.run();
+        } finally {
+            statements = counter.stopRecording();
+        }
+        return statements;
+    }
+
+    // Fails if the work executes more than maxStatements statements or shows an N+1 pattern
+    public List<String> assertAtMost(int maxStatements, String description, Work work) throws Exception {
+        List<String> statements = record(work);
+        if (statements.size() > maxStatements) {
+            fail("%s executed %d SQL statements, budget is %d:%n%s",
+                    description, statements.size(), maxStatements, summarize(statements));
+        }
+        assertNoNPlusOne(description, statements);
+        return statements;
+    }
+
+    public static void assertNoNPlusOne(String description, List<String> statements) {
+        groupByText(statements).forEach((sql, count) -> {
+            if (count >= N_PLUS_ONE_THRESHOLD && sql.trim().toLowerCase().startsWith("select")) {
+                fail("%s repeated the same query %d times (N+1?): %s%n%s",
+                        description, count, sql, summarize(statements));
+            }
+        });
+    }
+
+    private static Map<String, Integer> groupByText(List<String> statements) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        statements.forEach(sql -> counts.merge(sql, 1, Integer::sum));
+        return counts;
+    }
+
+    private static String summarize(List<String> statements) {
+        StringBuilder summary = new StringBuilder();
+        groupByText(statements).forEach((sql, count) ->
+                summary.append(String.format("  %3dx %s%n", count, sql)));
+        return summary.toString();
+    }
+}
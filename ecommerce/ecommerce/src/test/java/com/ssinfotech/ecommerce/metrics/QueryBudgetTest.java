@@ -0,0 +1,76 @@
+package com.ssinfotech.ecommerce.metrics;
+
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The budget assertions catch per-row lookups and over-budget work, and pass set-based access.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryBudget queryBudget;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setName("Stethoscope " + i);
+            product.setPrice(20.0);
+            products.add(product);
+        }
+        productIds = productRepository.saveAll(products).stream().map(Product::getId).toList();
+    }
+
+    @Test
+    void lookupPerRowIsReportedAsNPlusOne() {
+        // Products are in the second-level cache once saved; evict them so each lookup goes to the database
+        entityManagerFactory.getCache().evict(Product.class);
+        assertThatThrownBy(() -> queryBudget.assertAtMost(10, "findById loop",
+                () -> productIds.forEach(productRepository::findById)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("N+1");
+    }
+
+    @Test
+    void exceedingTheBudgetFailsAndListsTheStatements() {
+        assertThatThrownBy(() -> queryBudget.assertAtMost(1, "two queries",
+                () -> {
+                    productRepository.findAllById(productIds);
+                    productRepository.count();
+                }))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("executed 2 SQL statements, budget is 1")
+                .hasMessageContaining("from product");
+    }
+
+    @Test
+    void setBasedLookupStaysWithinBudget() throws Exception {
+        List<String> statements = queryBudget.assertAtMost(1, "findAllById",
+                () -> productRepository.findAllById(productIds));
+        assertThat(statements).hasSize(1);
+    }
+}
@@ -0,0 +1,158 @@
+package com.ssinfotech.ecommerce.repository;
+
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Runs EXPLAIN for the SQL that each repository query generates, on the schema built by the
+ * Flyway migrations, and fails when a table is read with a full scan that is not expected.
+ * The plans are H2's: they show that an index matching the query's filter and order exists and
+ * can be used. H2 indexes foreign keys on its own, which DB2 does not, so the test drops the
+ * foreign keys in its own database: the only indexes left are those DB2 has too.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=DB2;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class RepositoryQueryPlanTest {
+
+    // H2 marks a full table scan as /* PUBLIC.<TABLE>.tableScan */
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan \\*/");
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    private QueryBudget queryBudget;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+        // Cached query results would skip the SQL this test wants to see
+        entityManagerFactory.getCache().evictAll();
+        // Dropping a foreign key drops the index H2 created for it
+        jdbcTemplate.queryForList("SELECT table_name, constraint_name FROM information_schema.table_constraints "
+                        + "WHERE table_schema = 'PUBLIC' AND constraint_type = 'FOREIGN KEY'")
+                .forEach(fk -> jdbcTemplate.execute(
+                        "ALTER TABLE \"" + fk.get("TABLE_NAME") + "\" DROP CONSTRAINT \"" + fk.get("CONSTRAINT_NAME") + "\""));
+    }
+
+    @Test
+    void orderQueriesUseIndexes() throws Exception {
+        assertNoFullScan("OrderRepository.findByUserId", () -> orderRepository.findByUserId(1L));
+        assertThat(assertNoFullScan("OrderRepository.findWithItemsByUserIdOrderByCreatedAtDesc",
+                () -> orderRepository.findWithItemsByUserIdOrderByCreatedAtDesc(1L)))
+                .contains("IDX_ORDERS_USER_CREATED");
+        assertThat(assertNoFullScan("OrderRepository.findAllWithItemsByOrderByCreatedAtDesc",
+                () -> orderRepository.findAllWithItemsByOrderByCreatedAtDesc()))
+                .contains("IDX_ORDERS_CREATED");
+        assertNoFullScan("OrderRepository.streamSummaries", () -> transactionTemplate.executeWithoutResult(tx -> {
+            try (var orders = orderRepository.streamSummaries(null, null, null)) {
+                orders.count();
+            }
+        }));
+        assertNoFullScan("OrderRepository.streamSummaries with filters", () -> transactionTemplate.executeWithoutResult(tx -> {
+            try (var orders = orderRepository.streamSummaries(LocalDateTime.now().minusDays(1), LocalDateTime.now(), "PENDING")) {
+                orders.count();
+            }
+        }));
+        assertNoFullScan("OrderRepository.lockStatuses", () -> transactionTemplate.executeWithoutResult(tx ->
+                orderRepository.lockStatuses(List.of(1L, 2L))));
+        assertThat(assertNoFullScan("OrderRepository.lockStatusesWhere", () -> transactionTemplate.executeWithoutResult(tx ->
+                orderRepository.lockStatusesWhere("PENDING", LocalDateTime.now(), 0L, 500))))
+                .contains("IDX_ORDERS_STATUS_ID");
+        assertNoFullScan("OrderRepository.updateStatus", () -> transactionTemplate.executeWithoutResult(tx ->
+                orderRepository.updateStatus(List.of(-1L), "PENDING", LocalDateTime.now())));
+    }
+
+    @Test
+    void catalogAndAccountQueriesUseIndexes() throws Exception {
+        assertNoFullScan("ProductRepository.pageAfter", () -> productRepository.findBy(
+                ProductRepository.pageAfter(0L, null, 10.0, null),
+                query -> query.sortBy(Sort.by("id")).limit(50).all()));
+        assertThat(assertNoFullScan("ProductRepository.pageAfter in a category", () -> productRepository.findBy(
+                ProductRepository.pageAfter(0L, "ICU", null, 500.0),
+                query -> query.sortBy(Sort.by("id")).limit(50).all())))
+                .contains("IDX_PRODUCT_CATEGORY_ID");
+        assertThat(assertNoFullScan("ProductRepository.findBySkuIn", () ->
+                productRepository.findBySkuIn(List.of("a", "b"))))
+                .contains("IDX_PRODUCT_SKU");
+        assertThat(assertNoFullScan("AddressRepository.findByUserId", () -> addressRepository.findByUserId(1L)))
+                .contains("IDX_ADDRESS_USER");
+        assertThat(assertNoFullScan("UserRepository.findByEmail", () -> userRepository.findByEmail("nobody@example.com")))
+                .contains("UK_USER_EMAIL");
+    }
+
+    // The analytics backfill aggregates every row once at startup; joined tables must still use indexes
+    @Test
+    void analyticsBackfillScansOnlyTheTableItAggregates() throws Exception {
+        assertNoFullScan("OrderRepository.dailyTotals", () -> orderRepository.dailyTotals(), "ORDERS");
+        assertNoFullScan("OrderRepository.statusTotals", () -> orderRepository.statusTotals(), "ORDERS");
+        assertNoFullScan("OrderItemRepository.productTotals", () -> orderItemRepository.productTotals(), "ORDER_ITEMS");
+    }
+
+    @Test
+    void migrationsCreatedTheIndexPlan() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE table_schema = 'PUBLIC'", String.class);
+        assertThat(indexes).contains("IDX_ORDERS_USER_CREATED", "IDX_ORDERS_CREATED", "IDX_ORDERS_STATUS_ID",
+                "IDX_ORDER_ITEMS_ORDER", "IDX_ORDER_ITEMS_PRODUCT", "IDX_ADDRESS_USER", "IDX_PRODUCT_CATEGORY_ID",
+                "IDX_PRODUCT_SKU");
+    }
+
+    // Runs the query, explains every statement it sent and returns the plans
+    private String assertNoFullScan(String description, QueryBudget.Work query, String... fullScansAllowed)
+            throws Exception {
+        List<String> statements = queryBudget.record(query).stream()
+                .filter(sql -> !sql.startsWith("select next value for"))
+                .toList();
+        assertThat(statements).as(description + " sent no SQL").isNotEmpty();
+
+        Set<String> allowed = Set.of(fullScansAllowed);
+        List<String> plans = new ArrayList<>();
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            Matcher scan = TABLE_SCAN.matcher(plan);
+            while (scan.find()) {
+                if (!allowed.contains(scan.group(1))) {
+                    fail("%s reads %s with a full scan:%n%s%n%s", description, scan.group(1), sql, plan);
+                }
+            }
+            plans.add(plan);
+        }
+        return String.join("\n", plans);
+    }
+}
@@ -0,0 +1,70 @@
+package com.ssinfotech.ecommerce.repository;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upgrades a database that has the original schema and data, as deployments made before the
+ * migrations have, and checks that new ids do not collide with existing ones and that the
+ * sales summary is seeded from the existing orders.
+ */
+class SchemaMigrationTest {
+
+    @Test
+    void existingDatabaseIsBaselinedAndMigrated() throws Exception {
+        DataSource dataSource = h2();
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__initial_schema.sql"));
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO user (name, email, password, role) VALUES ('Existing', 'existing@example.com', 'x', 'USER')");
+        jdbc.update("INSERT INTO product (id, name, description, price, quantity) VALUES (120, 'Stretcher', 'Folding', 90.0, 3)");
+        jdbc.update("INSERT INTO orders (id, user_id, full_name, phone, address_line1, city, pincode, state, country, "
+                + "total_amount, order_status, created_at) SELECT 7, id, 'Ward 1', '9999999999', '1 Road', 'Pune', "
+                + "'411001', 'MH', 'India', 180.0, 'DELIVERED', TIMESTAMP '2024-05-01 10:00:00' FROM user");
+        jdbc.update("INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (7, 120, 2, 90.0)");
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+        flyway.migrate();
+
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("7");
+        // Hibernate's pooled optimizer uses ids (value - 49) to value
+        long nextProductBlock = jdbc.queryForObject("SELECT NEXT VALUE FOR product_seq", Long.class);
+        assertThat(nextProductBlock - 49).isGreaterThan(120);
+        assertThat(jdbc.queryForObject("SELECT description FROM product WHERE id = 120", String.class))
+                .isEqualTo("Folding");
+        // sales_summary starts from the existing orders
+        assertThat(jdbc.query("SELECT dimension, dimension_key, orders, units, amount FROM sales_summary "
+                + "ORDER BY dimension", (row, i) -> row.getString(1) + " " + row.getString(2) + " "
+                + row.getLong(3) + " " + row.getLong(4) + " " + row.getDouble(5)))
+                .containsExactly("CATEGORY Uncategorized 1 2 180.0", "DAY 2024-05-01 1 0 180.0",
+                        "PRODUCT 120 1 2 180.0", "STATUS DELIVERED 1 0 180.0");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM product WHERE sku IS NULL", Integer.class)).isOne();
+    }
+
+    @Test
+    void emptyDatabaseGetsEveryMigration() {
+        Flyway flyway = Flyway.configure().dataSource(h2()).load();
+        assertThat(flyway.migrate().migrationsExecuted).isEqualTo(7);
+    }
+
+    private static DataSource h2() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migration-" + UUID.randomUUID() + ";MODE=DB2;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
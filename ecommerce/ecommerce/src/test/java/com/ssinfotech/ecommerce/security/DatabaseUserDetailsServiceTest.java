@@ -0,0 +1,95 @@
+package com.ssinfotech.ecommerce.security;
+
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DatabaseUserDetailsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AppUserPrincipal admin = new AppUserPrincipal(null, "admin", "admin-hash", "ADMIN");
+    private final DatabaseUserDetailsService service =
+            new DatabaseUserDetailsService(userRepository, List.of(admin), 100, Duration.ofMinutes(10));
+
+    @Test
+    void principalIsLoadedOnceAndCached() {
+        when(userRepository.findByEmail("nurse@example.com")).thenReturn(user("USER"));
+
+        service.loadUserByUsername("nurse@example.com");
+        service.loadUserByUsername("nurse@example.com");
+
+        verify(userRepository, times(1)).findByEmail("nurse@example.com");
+    }
+
+    @Test
+    void roleChangeDuringALoadIsNotLostToTheCache() {
+        // The first load reads the old role, then the role changes and the principal is evicted
+        when(userRepository.findByEmail("nurse@example.com"))
+                .thenAnswer(invocation -> {
+                    User before = user("USER");
+                    service.evict("nurse@example.com");
+                    return before;
+                })
+                .thenReturn(user("ADMIN"));
+
+        assertThat(service.loadUserByUsername("nurse@example.com").getRole()).isEqualTo("USER");
+        assertThat(service.loadUserByUsername("nurse@example.com").getRole()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void evictedPrincipalIsLoadedAgain() {
+        when(userRepository.findByEmail("nurse@example.com")).thenReturn(user("USER")).thenReturn(user("ADMIN"));
+
+        assertThat(service.loadUserByUsername("nurse@example.com").getRole()).isEqualTo("USER");
+        service.evict("nurse@example.com");
+        assertThat(service.loadUserByUsername("nurse@example.com").getRole()).isEqualTo("ADMIN");
+        assertThat(service.loadUserByUsername("nurse@example.com").getRole()).isEqualTo("ADMIN");
+
+        verify(userRepository, times(2)).findByEmail("nurse@example.com");
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        assertThatThrownBy(() -> service.loadUserByUsername("nurse@example.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        // Registered afterwards, the user can sign in straight away
+        when(userRepository.findByEmail("nurse@example.com")).thenReturn(user("USER"));
+        assertThat(service.loadUserByUsername("nurse@example.com").getUserId()).isEqualTo(7L);
+    }
+
+    @Test
+    void databaseUserCannotShadowABuiltInAccount() {
+        User impostor = user("USER");
+        impostor.setEmail("admin");
+        when(userRepository.findByEmail("admin")).thenReturn(impostor);
+
+        AppUserPrincipal principal = service.loadUserByUsername("admin");
+
+        assertThat(principal).isSameAs(admin);
+        verify(userRepository, never()).findByEmail("admin");
+        assertThat(service.isReserved("Admin")).isTrue();
+        assertThat(service.isReserved("nurse@example.com")).isFalse();
+    }
+
+    private static User user(String role) {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("nurse@example.com");
+        user.setPassword("hash");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ssinfotech.ecommerce.security;
+
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bearer tokens through the security filter chain: a valid token authenticates the request with
+ * its role, an invalid or expired one leaves it unauthenticated, and no session is created. The
+ * authentication carries over to the async dispatch of a streamed response.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenAuthenticationFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(newUser("Token Holder"));
+    }
+
+    @Test
+    void validTokenAuthenticatesWithoutASession() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/addresses/user/" + user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user.getId(), "USER")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.SET_COOKIE))
+                .andReturn();
+
+        assertThat(result.getRequest().getSession(false)).isNull();
+    }
+
+    @Test
+    void asyncDispatchKeepsTheAuthentication() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/orders/export").param("status", "NONE-" + user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(null, "ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        assertThat(started.getRequest().getSession(false)).isNull();
+    }
+
+    @Test
+    void roleComesFromTheToken() throws Exception {
+        mockMvc.perform(get("/api/products/cache/stats").header(HttpHeaders.AUTHORIZATION, bearer(user.getId(), "USER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/products/cache/stats").header(HttpHeaders.AUTHORIZATION, bearer(user.getId(), "ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tokenWithoutARoleIsAPlainUser() throws Exception {
+        String token = bearer(user.getId(), null);
+
+        mockMvc.perform(get("/api/addresses/user/" + user.getId()).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void invalidOrExpiredTokenLeavesTheRequestUnauthenticated() throws Exception {
+        String expired = tokenService.issue(new TokenService.TokenClaims(user.getId(), user.getEmail(), "USER",
+                Instant.now().minusSeconds(60)));
+
+        mockMvc.perform(get("/api/addresses/user/" + user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + expired))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/addresses/user/" + user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user.getId(), "USER") + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String bearer(Long userId, String role) {
+        return "Bearer " + tokenService.issue(tokenService.newClaims(userId, user.getEmail(), role));
+    }
+}
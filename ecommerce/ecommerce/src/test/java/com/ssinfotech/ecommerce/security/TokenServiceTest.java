@@ -0,0 +1,84 @@
+package com.ssinfotech.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenServiceTest {
+
+    private final TokenService tokenService = new TokenService("test-secret-test-secret-0123456789", Duration.ofHours(8));
+
+    @Test
+    void secretShorterThan32BytesIsRejected() {
+        assertThatThrownBy(() -> new TokenService("x", Duration.ofHours(8)))
+                .hasMessageContaining("security.token.secret must be at least 32 bytes");
+        // Counted in UTF-8 bytes, not characters
+        assertThatThrownBy(() -> new TokenService("\u00e9".repeat(15), Duration.ofHours(8)))
+                .hasMessageContaining("but is 30");
+        new TokenService("\u00e9".repeat(16), Duration.ofHours(8));
+    }
+
+    @Test
+    void issuedTokenVerifiesToItsClaims() {
+        TokenService.TokenClaims claims = tokenService.newClaims(7L, "nurse@example.com", "USER");
+
+        assertThat(tokenService.verify(tokenService.issue(claims))).contains(claims);
+        // Built-in accounts have no user id
+        TokenService.TokenClaims admin = tokenService.newClaims(null, "admin", "ADMIN");
+        assertThat(tokenService.verify(tokenService.issue(admin))).contains(admin);
+    }
+
+    @Test
+    void missingRoleIsCarriedAsNone() {
+        String token = tokenService.issue(tokenService.newClaims(7L, "nurse@example.com", null));
+
+        assertThat(tokenService.verify(token)).hasValueSatisfying(claims -> assertThat(claims.role()).isNull());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        TokenService.TokenClaims expired = new TokenService.TokenClaims(7L, "nurse@example.com", "USER",
+                Instant.now().minusSeconds(1).truncatedTo(ChronoUnit.SECONDS));
+
+        assertThat(tokenService.verify(tokenService.issue(expired))).isEmpty();
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = tokenService.issue(tokenService.newClaims(7L, "nurse@example.com", "USER"));
+        String signature = token.substring(token.indexOf('.') + 1);
+
+        // Same signature over a payload that claims another role
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8).replace("\nUSER\n", "\nADMIN\n");
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + signature;
+        assertThat(tokenService.verify(forged)).isEmpty();
+
+        // One changed signature character
+        int dot = token.indexOf('.');
+        char first = token.charAt(dot + 1);
+        assertThat(tokenService.verify(token.substring(0, dot + 1) + (first == 'A' ? 'B' : 'A') + signature.substring(1)))
+                .isEmpty();
+
+        // Signed with another secret
+        TokenService other = new TokenService("other-secret-other-secret-0123456789", Duration.ofHours(8));
+        assertThat(tokenService.verify(other.issue(other.newClaims(7L, "nurse@example.com", "USER")))).isEmpty();
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThat(tokenService.verify("")).isEmpty();
+        assertThat(tokenService.verify("no-dot")).isEmpty();
+        assertThat(tokenService.verify(".signature")).isEmpty();
+        assertThat(tokenService.verify("payload.")).isEmpty();
+        assertThat(tokenService.verify("not base64!.not base64!")).isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.dto.BulkStatusUpdateResult;
+import com.ssinfotech.ecommerce.repository.OrderRepository;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Bulk status changes commit chunk by chunk: when one chunk fails, the orders of the chunks
+ * before it stay updated and are reported with the failed chunk, instead of failing the request.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkStatusUpdateTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @MockitoSpyBean
+    private SalesAnalytics salesAnalytics;
+
+    private String placed;
+    private Long first;
+    private Long second;
+
+    @BeforeEach
+    void setUp() {
+        Long userId = userRepository.save(newUser("Bulk Buyer")).getId();
+        Long productId = productRepository.save(newProduct("Suction catheter", 3.0, 100)).getId();
+        placed = "PLACED-" + UUID.randomUUID();
+        first = orderService.placeOrder(userId, newOrder(), List.of(newItem(productId, 1))).getId();
+        second = orderService.placeOrder(userId, newOrder(), List.of(newItem(productId, 1))).getId();
+        orderService.updateOrderStatuses(List.of(first, second), placed);
+    }
+
+    @Test
+    void failingChunkKeepsTheChunksBeforeIt() {
+        // The first chunk holds the first order and ids that do not exist, the second chunk the second order
+        List<Long> ids = new ArrayList<>();
+        ids.add(first);
+        for (long missing = 1; missing < OrderService.STATUS_UPDATE_CHUNK_SIZE; missing++) {
+            ids.add(-missing);
+        }
+        ids.add(second);
+        doCallRealMethod().doThrow(new RuntimeException("Lock wait timeout"))
+                .when(salesAnalytics).statusesChanged(anyList(), anyString());
+
+        BulkStatusUpdateResult result = orderService.updateOrderStatuses(ids, "SHIPPED");
+
+        assertThat(result.isIncomplete()).isTrue();
+        assertThat(result.getError()).isEqualTo("Lock wait timeout");
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getNotFound()).isEqualTo(OrderService.STATUS_UPDATE_CHUNK_SIZE - 1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getResults()).last().satisfies(item -> {
+            assertThat(item.getOrderId()).isEqualTo(second);
+            assertThat(item.getResult()).isEqualTo(BulkStatusUpdateResult.FAILED);
+        });
+        assertThat(orderRepository.findById(first).orElseThrow().getOrderStatus()).isEqualTo("SHIPPED");
+        assertThat(orderRepository.findById(second).orElseThrow().getOrderStatus()).isEqualTo(placed);
+    }
+
+    @Test
+    void failingChunkOfAFilteredUpdateIsReportedIncomplete() {
+        doThrow(new RuntimeException("Lock wait timeout"))
+                .when(salesAnalytics).statusesChanged(anyList(), anyString());
+
+        BulkStatusUpdateResult result = orderService.updateOrderStatusesWhere(placed, null, "SHIPPED");
+
+        assertThat(result.isIncomplete()).isTrue();
+        assertThat(result.getError()).isEqualTo("Lock wait timeout");
+        assertThat(result.getResults()).isEmpty();
+        assertThat(orderRepository.findById(first).orElseThrow().getOrderStatus()).isEqualTo(placed);
+    }
+}
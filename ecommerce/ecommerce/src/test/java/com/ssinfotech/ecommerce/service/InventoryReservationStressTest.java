@@ -0,0 +1,87 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.repository.OrderRepository;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many parallel buyers hammer a single hot SKU until it sells out.
+ * Every unit must be sold exactly once and stock must never go negative.
+ * HotSkuBenchmark measures the throughput of the same workload.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryReservationStressTest {
+
+    private static final int STOCK = 500;
+    private static final int BUYERS = 16;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void hotSkuIsNeverOversold() throws Exception {
+        Long userId = userRepository.save(newUser("Stress Buyer")).getId();
+        Long productId = productRepository.save(newProduct("Nitrile gloves (box of 100)", 12.5, STOCK)).getId();
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(BUYERS);
+        for (int i = 0; i < BUYERS; i++) {
+            buyers.submit(() -> {
+                start.await();
+                while (true) {
+                    try {
+                        orderService.placeOrder(userId, newOrder(), List.of(newItem(productId, 1)));
+                        placed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        if (e.getMessage() != null && e.getMessage().startsWith("Insufficient stock")) {
+                            rejected.incrementAndGet();
+                        } else {
+                            errors.add(e);
+                        }
+                        return null;
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        buyers.shutdown();
+        assertThat(buyers.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(errors).isEmpty();
+        assertThat(placed.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(BUYERS);
+        assertThat(productRepository.findById(productId).orElseThrow().getQuantity()).isZero();
+        assertThat(orderRepository.findByUserId(userId)).hasSize(STOCK);
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.dto.OrderHandle;
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * The async order queue on its own: one writer thread, a burst shares one transaction, a failing
+ * order is retried alone, a full queue turns callers away, and handles stay pollable until the
+ * order completes.
+ */
+class OrderIngestionQueueTest {
+
+    private static final Long BUYER = 1L;
+
+    private final RecordingOrderService orderService = new RecordingOrderService();
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private OrderIngestionQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        orderService.release.countDown();
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void burstIsPlacedByTheWriterInOneTransaction() throws Exception {
+        queue = start(100, 100, Duration.ofMillis(200), Duration.ofHours(1));
+
+        List<String> handles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            handles.add(queue.submit(BUYER, newOrder(), items()).orElseThrow().getHandle());
+        }
+
+        handles.forEach(handle -> awaitStatus(handle, OrderHandle.COMMITTED));
+        assertThat(handles).extracting(handle -> queue.status(BUYER, handle).orElseThrow().getOrderId())
+                .doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(orderService.threads).containsOnly("order-ingestion-writer");
+        assertThat(orderService.inTransaction).containsOnly(true);
+        assertThat(transactionManager.commits).hasValue(1);
+        assertThat(transactionManager.rollbacks).hasValue(0);
+    }
+
+    @Test
+    void failingOrderIsRetriedAloneAndTheOthersCommit() throws Exception {
+        queue = start(100, 100, Duration.ofMillis(200), Duration.ofHours(1));
+
+        Order outOfStock = newOrder();
+        outOfStock.setFullName(RecordingOrderService.OUT_OF_STOCK);
+        String first = queue.submit(BUYER, newOrder(), items()).orElseThrow().getHandle();
+        String failing = queue.submit(BUYER, outOfStock, items()).orElseThrow().getHandle();
+        String last = queue.submit(BUYER, newOrder(), items()).orElseThrow().getHandle();
+
+        awaitStatus(first, OrderHandle.COMMITTED);
+        awaitStatus(last, OrderHandle.COMMITTED);
+        OrderHandle failed = awaitStatus(failing, OrderHandle.FAILED);
+        assertThat(failed.getError()).contains("Insufficient stock");
+        assertThat(failed.getOrderId()).isNull();
+        // The batch rolled back once; the retries reused none of its generated ids
+        assertThat(transactionManager.rollbacks).hasValue(1);
+        assertThat(transactionManager.commits).hasValue(0);
+    }
+
+    @Test
+    void fullQueueTurnsOrdersAway() throws Exception {
+        orderService.blockFirstOrder = true;
+        queue = start(1, 1, Duration.ZERO, Duration.ofHours(1));
+
+        String placing = queue.submit(BUYER, newOrder(), items()).orElseThrow().getHandle();
+        assertThat(orderService.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        String queued = queue.submit(BUYER, newOrder(), items()).orElseThrow().getHandle();
+
+        assertThat(queue.submit(BUYER, newOrder(), items())).isEmpty();
+        assertThat(queue.queuedCount()).isEqualTo(1);
+
+        orderService.release.countDown();
+        awaitStatus(placing, OrderHandle.COMMITTED);
+        awaitStatus(queued, OrderHandle.COMMITTED);
+    }
+
+    @Test
+    void inFlightHandlesOutliveTheStatusTtl() throws Exception {
+        orderService.blockFirstOrder = true;
+        queue = start(10, 1, Duration.ZERO, Duration.ofMillis(1));
+
+        String placing = queue.submit(BUYER, newOrder(), items()).orElseThrow().getHandle();
+        assertThat(orderService.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        String queued = queue.submit(BUYER, newOrder(), items()).orElseThrow().getHandle();
+
+        await().during(Duration.ofMillis(100)).atMost(Duration.ofSeconds(1)).until(() ->
+                queue.status(BUYER, placing).isPresent() && queue.status(BUYER, queued).isPresent());
+        assertThat(queue.status(BUYER, queued).orElseThrow().getStatus()).isEqualTo(OrderHandle.QUEUED);
+
+        // Once placed, only the outcome is subject to the TTL
+        orderService.release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                orderService.threads.size() == 2 && queue.status(BUYER, queued).isEmpty());
+    }
+
+    @Test
+    void handleIsVisibleOnlyToItsSubmitter() throws Exception {
+        queue = start(10, 10, Duration.ZERO, Duration.ofHours(1));
+
+        String handle = queue.submit(BUYER, newOrder(), items()).orElseThrow().getHandle();
+
+        assertThat(queue.status(2L, handle)).isEmpty();
+        assertThat(queue.status(null, handle)).isEmpty();
+        awaitStatus(handle, OrderHandle.COMMITTED);
+        assertThat(queue.status(2L, handle)).isEmpty();
+    }
+
+    private OrderIngestionQueue start(int capacity, int batchSize, Duration linger, Duration statusTtl) {
+        OrderIngestionQueue started = new OrderIngestionQueue(orderService, new TransactionTemplate(transactionManager),
+                capacity, batchSize, linger, Duration.ofMillis(10), statusTtl);
+        started.start();
+        return started;
+    }
+
+    private OrderHandle awaitStatus(String handle, String status) {
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                queue.status(BUYER, handle).map(OrderHandle::getStatus).orElse("").equals(status));
+        return queue.status(BUYER, handle).orElseThrow();
+    }
+
+    private static List<OrderItem> items() {
+        return List.of(newItem(10L, 1));
+    }
+
+    // Places orders without a database, recording where they were placed; can hold the first order until released
+    private static class RecordingOrderService extends OrderService {
+
+        static final String OUT_OF_STOCK = "OUT OF STOCK";
+
+        final Queue<String> threads = new ConcurrentLinkedQueue<>();
+        final Queue<Boolean> inTransaction = new ConcurrentLinkedQueue<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean blockFirstOrder;
+        private final AtomicLong ids = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Order placeOrder(Long userId, Order order, List<OrderItem> orderItems) {
+            if (order.getId() != null) {
+                throw new IllegalStateException("Order was placed with an id left over from a rolled-back batch");
+            }
+            entered.countDown();
+            // Only the first order waits, so a blocked writer holds exactly one order
+            if (calls.getAndIncrement() == 0 && blockFirstOrder) {
+                awaitRelease();
+            }
+            threads.add(Thread.currentThread().getName());
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            order.setId(ids.incrementAndGet());
+            if (OUT_OF_STOCK.equals(order.getFullName())) {
+                throw new RuntimeException("Insufficient stock for product 10");
+            }
+            return order;
+        }
+
+        private void awaitRelease() {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class CountingTransactionManager extends AbstractPlatformTransactionManager {
+
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the JDBC round trips of placing a large order with insert batching disabled
+ * (batch size 1) and with the configured batch size. Round trips are deterministic, so
+ * unlike latency they can be asserted on.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderInsertBatchingTest {
+
+    private static final int ORDER_LINES = 200;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void largeOrderInsertsAreSentInJdbcBatches() {
+        Long userId = userRepository.save(newUser("Batch Benchmark")).getId();
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ORDER_LINES; i++) {
+            products.add(newProduct("Surgical gloves " + i, 10.0 + i, 1000));
+        }
+        List<Long> productIds = productRepository.saveAll(products).stream().map(Product::getId).toList();
+
+        long unbatched = roundTrips(userId, productIds, 1);
+        long batched = roundTrips(userId, productIds, null);
+
+        assertThat(unbatched).isGreaterThan(ORDER_LINES);
+        assertThat(batched).isLessThan(unbatched / 10);
+    }
+
+    // Round trips of placing one order; a null batch size keeps the configured default
+    private long roundTrips(Long userId, List<Long> productIds, Integer batchSize) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(batchSize);
+            RoundTripCounter counter = new RoundTripCounter();
+            session.addEventListeners(counter);
+
+            orderService.placeOrder(userId, newOrder(), newItems(productIds));
+            session.flush();
+            return counter.count;
+        });
+    }
+
+    private static List<OrderItem> newItems(List<Long> productIds) {
+        List<OrderItem> items = new ArrayList<>();
+        for (Long productId : productIds) {
+            items.add(newItem(productId, 2));
+        }
+        return items;
+    }
+
+    // Counts statements and batches sent to the database by one session
+    private static class RoundTripCounter implements SessionEventListener {
+        private long count;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            count++;
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            count++;
+        }
+    }
+}
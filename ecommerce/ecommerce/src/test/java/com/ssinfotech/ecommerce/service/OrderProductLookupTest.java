@@ -0,0 +1,72 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Placing an order resolves all of its products with one lookup: every line gets its product and
+ * current price, repeated products are loaded once, and unknown products are reported together.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderProductLookupTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private UserRepository userRepository;
+    @MockitoSpyBean
+    private ProductRepository productRepository;
+
+    private Long userId;
+    private Long bandage;
+    private Long saline;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(newUser("Lookup Buyer")).getId();
+        bandage = productRepository.save(newProduct("Bandage roll", 2.0, 100)).getId();
+        saline = productRepository.save(newProduct("Saline bag", 5.0, 100)).getId();
+        clearInvocations(productRepository);
+    }
+
+    @Test
+    void everyLineIsResolvedFromOneLookup() {
+        Order order = orderService.placeOrder(userId, newOrder(),
+                List.of(newItem(bandage, 3), newItem(saline, 1), newItem(bandage, 1)));
+
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository, never()).findById(any());
+        assertThat(order.getOrderItems()).extracting(OrderItem::getPrice).containsExactly(2.0, 5.0, 2.0);
+        assertThat(order.getTotalAmount()).isEqualTo(13.0);
+    }
+
+    @Test
+    void unknownProductsAreReportedTogether() {
+        assertThatThrownBy(() -> orderService.placeOrder(userId, newOrder(),
+                List.of(newItem(-1L, 1), newItem(bandage, 1), newItem(-2L, 1))))
+                .hasMessage("Products not found: [-1, -2]");
+    }
+}
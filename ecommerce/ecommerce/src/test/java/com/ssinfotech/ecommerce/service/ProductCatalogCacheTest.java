@@ -0,0 +1,88 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The catalog cache on its own: a loaded product or listing is served from memory until an
+ * invalidation drops it, and products that are not found are not cached. Loads run outside the
+ * cache's compute, so an invalidation can land while a load is in flight: the loaded value is then
+ * returned to its caller but not cached.
+ */
+class ProductCatalogCacheTest {
+
+    private final ProductCatalogCache cache = new ProductCatalogCache(100, Duration.ofMinutes(5));
+
+    @Test
+    void loadedProductIsCachedWhenNothingChanged() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getProduct(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(product(id, 10));
+        });
+        assertThat(cache.getProduct(1L, id -> Optional.empty())).get()
+                .extracting(Product::getQuantity).isEqualTo(10);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidationDropsTheProductAndTheListing() {
+        cache.getProduct(1L, id -> Optional.of(product(id, 10)));
+        cache.getAllProducts(() -> List.of(product(1L, 10)));
+
+        cache.invalidate(1L);
+
+        assertThat(cache.getProduct(1L, id -> Optional.of(product(id, 7)))).get()
+                .extracting(Product::getQuantity).isEqualTo(7);
+        assertThat(cache.getAllProducts(() -> List.of(product(1L, 7))))
+                .extracting(Product::getQuantity).containsExactly(7);
+    }
+
+    @Test
+    void missingProductIsNotCached() {
+        assertThat(cache.getProduct(1L, id -> Optional.empty())).isEmpty();
+
+        assertThat(cache.getProduct(1L, id -> Optional.of(product(id, 10)))).isPresent();
+    }
+
+    @Test
+    void productInvalidatedDuringItsLoadIsNotCached() {
+        // The load read quantity 10, then a stock reservation committed and invalidated the id
+        Optional<Product> loaded = cache.getProduct(1L, id -> {
+            Product stale = product(id, 10);
+            cache.invalidate(id);
+            return Optional.of(stale);
+        });
+        assertThat(loaded).get().extracting(Product::getQuantity).isEqualTo(10);
+
+        assertThat(cache.getProduct(1L, id -> Optional.of(product(id, 7)))).get()
+                .extracting(Product::getQuantity).isEqualTo(7);
+    }
+
+    @Test
+    void listingInvalidatedDuringItsLoadIsNotCached() {
+        cache.getAllProducts(() -> {
+            List<Product> stale = List.of(product(1L, 10));
+            cache.invalidate(1L);
+            return stale;
+        });
+
+        assertThat(cache.getAllProducts(() -> List.of(product(1L, 7))))
+                .extracting(Product::getQuantity).containsExactly(7);
+    }
+
+    private static Product product(Long id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Infusion set");
+        product.setQuantity(quantity);
+        return product;
+    }
+}
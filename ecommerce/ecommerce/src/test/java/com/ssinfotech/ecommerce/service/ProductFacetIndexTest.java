@@ -0,0 +1,134 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.dto.ProductFacets;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The facet index on its own: category and in-stock counts follow saves, deletes and stock
+ * reservations, prices land in the bucket whose lower bound they reach, prices below the lowest
+ * bound get a bucket of their own, no bounds means no price histogram, a change made while the index is loading is not
+ * overwritten by the load, and a reservation the load already saw is not taken again.
+ */
+class ProductFacetIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductFacetIndex index = new ProductFacetIndex(productRepository, new double[] {100, 10, 500});
+
+    @Test
+    void countsFollowSavesDeletesAndReservations() {
+        index.productSaved(product(1L, "Respiratory", 20.0, 5));
+        index.productSaved(product(2L, "Respiratory", 150.0, 0));
+        index.productSaved(product(3L, null, 700.0, 1));
+
+        ProductFacets facets = index.facets(null);
+        assertThat(facets.getTotal()).isEqualTo(3);
+        assertThat(facets.getInStock()).isEqualTo(2);
+        assertThat(facets.getCategories()).extracting("category", "count", "inStock")
+                .containsExactly(tuple("Respiratory", 2L, 1L), tuple("Uncategorized", 1L, 1L));
+
+        index.stockReserved(3L, 1, 0, LocalDateTime.now());
+        index.productSaved(product(1L, "Monitoring", 20.0, 5));
+        index.productDeleted(2L);
+
+        facets = index.facets(null);
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getInStock()).isEqualTo(1);
+        assertThat(facets.getCategories()).extracting("category", "count", "inStock")
+                .containsExactly(tuple("Monitoring", 1L, 1L), tuple("Uncategorized", 1L, 0L));
+    }
+
+    @Test
+    void pricesLandInTheBucketWhoseLowerBoundTheyReach() {
+        index.productSaved(product(1L, "Respiratory", 10.0, 1));
+        index.productSaved(product(2L, "Respiratory", 99.99, 1));
+        index.productSaved(product(3L, "Respiratory", 100.0, 1));
+        index.productSaved(product(4L, "Monitoring", 5000.0, 1));
+
+        assertThat(index.facets(null).getPriceBuckets()).extracting("min", "max", "count")
+                .containsExactly(tuple(10.0, 100.0, 2L), tuple(100.0, 500.0, 1L), tuple(500.0, null, 1L));
+        assertThat(index.facets("Monitoring").getPriceBuckets()).extracting("count")
+                .containsExactly(0L, 0L, 1L);
+    }
+
+    @Test
+    void pricesBelowTheLowestBoundHaveTheirOwnBucket() {
+        index.productSaved(product(1L, "Consumables", 2.5, 1));
+        index.productSaved(product(2L, "Consumables", null, 1));
+        index.productSaved(product(3L, "Consumables", 50.0, 1));
+
+        assertThat(index.facets(null).getPriceBuckets()).extracting("min", "max", "count")
+                .containsExactly(tuple(null, 10.0, 2L), tuple(10.0, 100.0, 1L),
+                        tuple(100.0, 500.0, 0L), tuple(500.0, null, 0L));
+
+        index.productDeleted(1L);
+        index.productDeleted(2L);
+        assertThat(index.facets(null).getPriceBuckets()).extracting("min").containsExactly(10.0, 100.0, 500.0);
+    }
+
+    @Test
+    void noBoundsMeansNoPriceBuckets() {
+        ProductFacetIndex unbucketed = new ProductFacetIndex(productRepository, new double[0]);
+        unbucketed.productSaved(product(1L, "Consumables", 2.5, 1));
+        unbucketed.productSaved(product(2L, "Consumables", null, 0));
+
+        ProductFacets facets = unbucketed.facets(null);
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getInStock()).isEqualTo(1);
+        assertThat(facets.getPriceBuckets()).isEmpty();
+        assertThat(unbucketed.facets("Consumables").getPriceBuckets()).isEmpty();
+    }
+
+    @Test
+    void changeDuringTheLoadIsNotOverwritten() {
+        // The first load returns rows from before a save and a delete that land while it runs
+        when(productRepository.findAll())
+                .thenAnswer(invocation -> {
+                    index.productSaved(product(1L, "Monitoring", 20.0, 5));
+                    index.productDeleted(2L);
+                    return List.of(product(1L, "Respiratory", 20.0, 5), product(2L, "Respiratory", 150.0, 1));
+                })
+                .thenReturn(List.of(product(1L, "Monitoring", 20.0, 5)));
+
+        index.rebuild();
+
+        ProductFacets facets = index.facets(null);
+        assertThat(facets.getTotal()).isEqualTo(1);
+        assertThat(facets.getCategories()).extracting("category").containsExactly("Monitoring");
+    }
+
+    @Test
+    void reservationAlreadyLoadedIsNotTakenTwice() {
+        // The order took 1 of 2 and committed before the load; its notification arrives after the rebuild
+        when(productRepository.findAll()).thenReturn(List.of(product(1L, "Respiratory", 20.0, 1)));
+        index.rebuild();
+
+        index.stockReserved(1L, 1, 1, LocalDateTime.now());
+        assertThat(index.facets(null).getInStock()).isEqualTo(1);
+
+        // Two later orders, notified in the opposite order of their commits
+        index.stockReserved(1L, 1, 0, LocalDateTime.now());
+        index.productSaved(product(2L, "Respiratory", 20.0, 2));
+        index.stockReserved(2L, 1, 0, LocalDateTime.now());
+        index.stockReserved(2L, 1, 1, LocalDateTime.now());
+        assertThat(index.facets(null).getInStock()).isZero();
+    }
+
+    private static Product product(Long id, String category, Double price, int quantity) {
+        Product product = newProduct("Product " + id, 0, quantity);
+        product.setId(id);
+        product.setCategory(category);
+        product.setPrice(price);
+        return product;
+    }
+}
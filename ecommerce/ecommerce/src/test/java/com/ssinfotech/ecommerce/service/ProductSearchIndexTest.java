@@ -0,0 +1,165 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.dto.ProductSearchResult;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.service.ProductSearchIndex.MAX_PREFIX_EXPANSIONS;
+import static com.ssinfotech.ecommerce.service.ProductSearchIndex.MAX_SUGGESTIONS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The search index on its own: products are found by every field with the name ranked first,
+ * the last query word matches as a prefix, a prefix with a large vocabulary below it expands only to its most
+ * common terms, renames and deletes leave no stale terms or trie nodes behind, and a change made while the
+ * index is loading is not overwritten by the load.
+ */
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository);
+
+    @Test
+    void addedProductIsFoundByAnyFieldWithTheNameRankedFirst() {
+        index.productSaved(product(1L, "Oxygen mask", "Respiratory", "Adult size"));
+        index.productSaved(product(2L, "Nebulizer", "Respiratory", "Comes with an oxygen tube"));
+
+        assertThat(ids(index.search("oxygen", 0, 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("respiratory", 0, 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.search("adult oxygen", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("paediatric", 0, 10))).isEmpty();
+    }
+
+    @Test
+    void lastWordMatchesAsAPrefix() {
+        index.productSaved(product(1L, "Oxygen mask", "Respiratory", null));
+        index.productSaved(product(2L, "Oximeter", "Monitoring", null));
+        index.productSaved(product(3L, "Oxygen concentrator", "Respiratory", null));
+
+        assertThat(ids(index.search("ox", 0, 10))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ids(index.search("oxygen ma", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("mask ox", 0, 10))).containsExactly(1L);
+        assertThat(index.autocomplete("ox", 10)).containsExactly("oxygen", "oximeter");
+    }
+
+    @Test
+    void shortPrefixMatchesEveryTermItStarts() {
+        // Sixty single-product model codes sort before the term most products share
+        for (long id = 1; id <= 60; id++) {
+            index.productSaved(product(id, String.format("Model ox%03d", id), "Monitoring", null));
+        }
+        for (long id = 61; id <= 63; id++) {
+            index.productSaved(product(id, "Oxygen mask", "Respiratory", null));
+        }
+
+        assertThat(index.search("ox", 0, 10).getTotal()).isEqualTo(63);
+        assertThat(ids(index.search("ox", 0, 100))).hasSize(63).doesNotHaveDuplicates();
+        assertThat(ids(index.search("ox", 6, 10))).hasSize(3);
+        assertThat(index.autocomplete("ox", 2)).containsExactly("oxygen", "ox001");
+    }
+
+    @Test
+    void prefixOverALargeVocabularyExpandsToItsMostCommonTerms() {
+        // Two thousand single-product model codes and one term ten products share, all under "ox"
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            products.add(product(id, String.format("Model ox%04d", id), "Monitoring", null));
+        }
+        for (long id = 2001; id <= 2010; id++) {
+            products.add(product(id, "Oxygen mask", "Respiratory", null));
+        }
+        index.productsSaved(products);
+
+        // Only "oxygen" and the first codes are expanded, so the total is a lower bound
+        ProductSearchResult shortPrefix = index.search("ox", 0, 10);
+        assertThat(shortPrefix.isTotalLowerBound()).isTrue();
+        assertThat(shortPrefix.getTotal()).isEqualTo(10 + MAX_SUGGESTIONS - 1);
+        assertThat(ids(index.search("mask ox", 0, 20))).hasSize(10);
+
+        // ox1200 to ox1299 are few enough to expand them all
+        assertThat(MAX_PREFIX_EXPANSIONS).isGreaterThanOrEqualTo(100);
+        ProductSearchResult longerPrefix = index.search("ox12", 0, 10);
+        assertThat(longerPrefix.isTotalLowerBound()).isFalse();
+        assertThat(longerPrefix.getTotal()).isEqualTo(100);
+
+        assertThat(index.autocomplete("o", 3)).containsExactly("oxygen", "ox0001", "ox0002");
+        assertThat(index.autocomplete("ox", 100)).hasSize(MAX_SUGGESTIONS);
+
+        // Once no product has it, the common term drops out of the suggestions of every prefix
+        for (long id = 2001; id <= 2010; id++) {
+            index.productDeleted(id);
+        }
+        assertThat(index.autocomplete("o", 2)).containsExactly("ox0001", "ox0002");
+        assertThat(index.search("oxy", 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void renameDropsTheOldTermsAndTheirTrieNodes() {
+        index.productSaved(product(1L, "Infusion pump", "Infusion", null));
+
+        index.productSaved(product(1L, "Syringe pump", "Infusion", null));
+
+        assertThat(ids(index.search("syringe", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("infusion pump", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("pum", 0, 10))).containsExactly(1L);
+        ProductSearchIndex fresh = new ProductSearchIndex(productRepository);
+        fresh.productSaved(product(1L, "Syringe pump", "Infusion", null));
+        assertThat(index.trieSize()).isEqualTo(fresh.trieSize());
+
+        index.productSaved(product(1L, "Syringe driver", "Infusion", null));
+        assertThat(ids(index.search("pump", 0, 10))).isEmpty();
+        assertThat(index.autocomplete("p", 10)).isEmpty();
+    }
+
+    @Test
+    void deleteRemovesTheProductAndPrunesTheTrie() {
+        index.productSaved(product(1L, "Oxygen mask", "Respiratory", null));
+        index.productSaved(product(2L, "Oxygen cylinder", "Respiratory", null));
+
+        index.productDeleted(1L);
+        assertThat(ids(index.search("oxygen", 0, 10))).containsExactly(2L);
+        assertThat(index.autocomplete("ma", 10)).isEmpty();
+
+        index.productDeleted(2L);
+        assertThat(index.search("oxygen", 0, 10).getTotal()).isZero();
+        assertThat(index.trieSize()).isZero();
+    }
+
+    @Test
+    void changeDuringTheLoadIsNotOverwritten() {
+        // The first load returns rows from before a rename and a delete that land while it runs
+        when(productRepository.findAll())
+                .thenAnswer(invocation -> {
+                    index.productSaved(product(1L, "Syringe pump", "Infusion", null));
+                    index.productDeleted(2L);
+                    return List.of(product(1L, "Infusion pump", "Infusion", null),
+                            product(2L, "Drip stand", "Infusion", null));
+                })
+                .thenReturn(List.of(product(1L, "Syringe pump", "Infusion", null)));
+
+        index.rebuild();
+
+        assertThat(ids(index.search("syringe", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("drip", 0, 10))).isEmpty();
+        assertThat(index.autocomplete("infusion p", 10)).containsExactly("pump");
+    }
+
+    private static Product product(Long id, String name, String category, String description) {
+        Product product = newProduct(name, 100.0, 5);
+        product.setId(id);
+        product.setCategory(category);
+        product.setDescription(description);
+        return product;
+    }
+
+    private static List<Long> ids(ProductSearchResult result) {
+        return result.getHits().stream().map(ProductSearchResult.Hit::getId).toList();
+    }
+}
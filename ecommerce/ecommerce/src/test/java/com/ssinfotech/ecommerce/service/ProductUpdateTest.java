@@ -0,0 +1,77 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Product updates start from a fresh load, so the instance held in the catalog cache, which
+ * concurrent readers share, never changes, not even when the save fails.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductUpdateTest {
+
+    @Autowired
+    private ProductService productService;
+
+    private Product taken;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        taken = newProduct("Suction unit", 300.0, 5);
+        taken.setSku(UUID.randomUUID() + "-suction");
+        taken = productService.saveProduct(taken);
+
+        product = newProduct("Patient monitor", 1200.0, 10);
+        product.setSku(UUID.randomUUID() + "-monitor");
+        product = productService.saveProduct(product);
+    }
+
+    @Test
+    void updateDoesNotModifyTheCachedInstance() {
+        Product cached = productService.getProductById(product.getId()).orElseThrow();
+
+        Product updated = productService.updateProduct(product.getId(), details(product.getSku(), 1100.0)).orElseThrow();
+
+        assertThat(updated).isNotSameAs(cached);
+        assertThat(cached.getPrice()).isEqualTo(1200.0);
+        assertThat(productService.getProductById(product.getId())).get()
+                .extracting(Product::getPrice).isEqualTo(1100.0);
+    }
+
+    @Test
+    void failedUpdateLeavesTheCachedProductUnchanged() {
+        Product cached = productService.getProductById(product.getId()).orElseThrow();
+
+        // The sku belongs to another product, so the save fails on the unique index
+        assertThatThrownBy(() -> productService.updateProduct(product.getId(), details(taken.getSku(), 1100.0)));
+
+        assertThat(cached.getSku()).isEqualTo(product.getSku());
+        assertThat(cached.getPrice()).isEqualTo(1200.0);
+        assertThat(productService.getProductById(product.getId())).get()
+                .extracting(Product::getSku, Product::getPrice)
+                .containsExactly(product.getSku(), 1200.0);
+    }
+
+    @Test
+    void unknownProductIsNotFound() {
+        assertThat(productService.updateProduct(-1L, details("missing", 1.0))).isEmpty();
+    }
+
+    private static Product details(String sku, double price) {
+        Product details = newProduct("Patient monitor", price, 10);
+        details.setSku(sku);
+        return details;
+    }
+}
@@ -0,0 +1,82 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validators from the version index: writes within one millisecond still change the ETags,
+ * an unchanged catalog keeps its ETag across a rebuild, and a change made while the index is
+ * loading is not overwritten by the load.
+ */
+class ProductVersionIndexTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductVersionIndex index = new ProductVersionIndex(productRepository);
+
+    @Test
+    void writesInTheSameMillisecondGetDifferentETags() {
+        when(productRepository.findAll()).thenReturn(List.of(product(1L, "Stretcher")));
+        index.rebuild();
+        String productETag = index.product(1L).orElseThrow().eTag();
+        String catalogETag = index.catalog().orElseThrow().eTag();
+
+        index.productSaved(product(1L, "Stretcher, folding"));
+        String saved = index.product(1L).orElseThrow().eTag();
+        assertThat(saved).isNotEqualTo(productETag);
+        assertThat(index.catalog().orElseThrow().eTag()).isNotEqualTo(catalogETag);
+
+        index.stockReserved(1L, 1, 4, UPDATED_AT);
+        assertThat(index.product(1L).orElseThrow().eTag()).isNotIn(productETag, saved);
+    }
+
+    @Test
+    void unchangedCatalogKeepsItsETagAcrossRebuilds() {
+        when(productRepository.findAll()).thenReturn(List.of(product(1L, "Stretcher"), product(2L, "Wheelchair")));
+        index.rebuild();
+        String catalogETag = index.catalog().orElseThrow().eTag();
+        String productETag = index.product(2L).orElseThrow().eTag();
+
+        ProductVersionIndex restarted = new ProductVersionIndex(productRepository);
+        restarted.rebuild();
+
+        assertThat(restarted.catalog().orElseThrow().eTag()).isEqualTo(catalogETag);
+        assertThat(restarted.product(2L).orElseThrow().eTag()).isEqualTo(productETag);
+    }
+
+    @Test
+    void changeDuringTheLoadIsNotOverwritten() {
+        Product stale = product(1L, "Stretcher");
+        Product deleted = product(2L, "Wheelchair");
+        // The first load returns rows from before a save and a delete that land while it runs
+        when(productRepository.findAll())
+                .thenAnswer(invocation -> {
+                    index.productSaved(product(1L, "Stretcher, folding"));
+                    index.productDeleted(2L);
+                    return List.of(stale, deleted);
+                })
+                .thenReturn(List.of(product(1L, "Stretcher, folding")));
+
+        index.rebuild();
+
+        assertThat(index.product(2L)).isEmpty();
+        assertThat(index.catalog().orElseThrow().eTag()).startsWith("\"c1-");
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = newProduct(name, 100.0, 5);
+        product.setId(id);
+        product.setUpdatedAt(UPDATED_AT);
+        return product;
+    }
+}
@@ -0,0 +1,244 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.dto.OrderHistoryEntry;
+import com.ssinfotech.ecommerce.dto.SalesDashboard;
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import com.ssinfotech.ecommerce.security.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sales rollups: placing orders and changing their status update the dashboard incrementally,
+ * the result matches a fresh backfill, concurrent status changes are counted once, and
+ * sales_summary receives only the changes, on top of what other instances persisted.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SalesAnalyticsTest {
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private TokenService tokenService;
+
+    private Long userId;
+    private String category;
+    private Product monitor;
+    private Product cable;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(newUser("Analytics Buyer")).getId();
+
+        category = "Analytics " + UUID.randomUUID();
+        monitor = productRepository.save(product("Bedside monitor", 250.0));
+        cable = productRepository.save(product("ECG cable", 12.5));
+    }
+
+    @Test
+    void incrementalRollupsMatchABackfill() {
+        SalesDashboard before = salesAnalytics.dashboard(1, 100);
+
+        Order first = orderService.placeOrder(userId, newOrder(), items(monitor, 2, cable, 4));
+        Order second = orderService.placeOrder(userId, newOrder(), items(monitor, 1, cable, 1));
+        Order third = orderService.placeOrder(userId, newOrder(), items(cable, 900_000));
+        double placed = 3 * 250.0 + 5 * 12.5 + 900_000 * 12.5;
+
+        SalesDashboard after = salesAnalytics.dashboard(1, 100);
+        assertThat(after.getOrders() - before.getOrders()).isEqualTo(3);
+        assertThat(after.getRevenue() - before.getRevenue()).isCloseTo(placed, within(0.01));
+        SalesDashboard.Day today = after.getDaily().get(0);
+        assertThat(today.getDate()).isEqualTo(LocalDate.now());
+        assertThat(today.getOrders() - before.getDaily().get(0).getOrders()).isEqualTo(3);
+
+        SalesDashboard.Total categoryTotal = total(after.getByCategory(), category);
+        assertThat(categoryTotal.getOrders()).isEqualTo(5);  // order lines
+        assertThat(categoryTotal.getUnits()).isEqualTo(3 + 900_005);
+        assertThat(categoryTotal.getAmount()).isCloseTo(placed, within(0.01));
+        assertThat(after.getTopProducts().get(0).getProductId()).isEqualTo(cable.getId());
+        assertThat(after.getTopProducts().get(0).getUnits()).isEqualTo(900_005);
+
+        // Single, bulk by id and bulk by filter status changes move the orders between statuses
+        String approved = "APPROVED-" + UUID.randomUUID();
+        String shipped = "SHIPPED-" + UUID.randomUUID();
+        orderService.updateOrderStatus(first.getId(), approved);
+        orderService.updateOrderStatuses(List.of(second.getId(), third.getId()), shipped);
+        SalesDashboard moved = salesAnalytics.dashboard(1, 100);
+        assertThat(total(moved.getByStatus(), approved).getOrders()).isEqualTo(1);
+        assertThat(total(moved.getByStatus(), shipped).getOrders()).isEqualTo(2);
+        assertThat(total(moved.getByStatus(), shipped).getAmount())
+                .isCloseTo(second.getTotalAmount() + third.getTotalAmount(), within(0.01));
+
+        orderService.updateOrderStatusesWhere(shipped, null, approved);
+        SalesDashboard merged = salesAnalytics.dashboard(1, 100);
+        assertThat(total(merged.getByStatus(), approved).getAmount()).isCloseTo(placed, within(0.01));
+        assertThat(merged.getByStatus()).extracting(SalesDashboard.Total::getName).doesNotContain(shipped);
+        assertThat(merged.getRevenue()).isEqualTo(after.getRevenue());
+
+        salesAnalytics.backfill();
+        SalesDashboard rebuilt = salesAnalytics.dashboard(1, 100);
+        assertThat(rebuilt.getOrders()).isEqualTo(merged.getOrders());
+        assertThat(rebuilt.getRevenue()).isCloseTo(merged.getRevenue(), within(0.01));
+        assertThat(total(rebuilt.getByStatus(), approved).getOrders()).isEqualTo(3);
+        assertThat(total(rebuilt.getByCategory(), category).getUnits()).isEqualTo(categoryTotal.getUnits());
+        assertThat(rebuilt.getTopProducts().get(0).getUnits()).isEqualTo(900_005);
+    }
+
+    @Test
+    void rollupsArePersistedToTheSummaryTable() {
+        orderService.placeOrder(userId, newOrder(), items(monitor, 3));
+        salesAnalytics.persist();
+
+        Long units = jdbcTemplate.queryForObject(
+                "SELECT units FROM sales_summary WHERE dimension = 'PRODUCT' AND dimension_key = ?",
+                Long.class, monitor.getId().toString());
+        Double amount = jdbcTemplate.queryForObject(
+                "SELECT amount FROM sales_summary WHERE dimension = 'CATEGORY' AND dimension_key = ?",
+                Double.class, category);
+        assertThat(units).isEqualTo(3);
+        assertThat(amount).isEqualTo(750.0);
+    }
+
+    @Test
+    void summaryAddsToWhatOtherInstancesPersisted() {
+        // As if another instance had already added a sale of the cable
+        jdbcTemplate.update("INSERT INTO sales_summary (dimension, dimension_key, orders, units, amount, updated_at) "
+                + "VALUES ('PRODUCT', ?, 1, 4, 50.0, CURRENT_TIMESTAMP)", cable.getId().toString());
+        Order order = orderService.placeOrder(userId, newOrder(), items(cable, 1));
+        salesAnalytics.persist();
+
+        Long units = jdbcTemplate.queryForObject(
+                "SELECT units FROM sales_summary WHERE dimension = 'PRODUCT' AND dimension_key = ?",
+                Long.class, cable.getId().toString());
+        assertThat(units).isEqualTo(5);
+
+        // A status change moves the order between the status rows; a status left by every order is removed
+        String from = "PACKED-" + UUID.randomUUID();
+        String to = "SENT-" + UUID.randomUUID();
+        orderService.updateOrderStatus(order.getId(), from);
+        salesAnalytics.persist();
+        orderService.updateOrderStatus(order.getId(), to);
+        salesAnalytics.persist();
+        assertThat(jdbcTemplate.queryForList("SELECT dimension_key FROM sales_summary WHERE dimension = 'STATUS' "
+                + "AND dimension_key IN (?, ?)", String.class, from, to)).containsExactly(to);
+    }
+
+    @Test
+    void persistingWithNothingChangedRunsNoSql() throws Exception {
+        orderService.placeOrder(userId, newOrder(), items(monitor, 1));
+        salesAnalytics.persist();
+
+        new QueryBudget(sqlStatementCounter).assertAtMost(0, "SalesAnalytics.persist with no changes",
+                () -> salesAnalytics.persist());
+    }
+
+    @Test
+    void concurrentStatusChangesOfOneOrderAreCountedOnce() throws Exception {
+        Long orderId = orderService.placeOrder(userId, newOrder(), items(monitor, 1)).getId();
+        String prefix = "RACE-" + UUID.randomUUID() + "-";
+        ExecutorService admins = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<OrderHistoryEntry>> updates = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String status = prefix + i;
+                updates.add(admins.submit(() -> {
+                    start.await();
+                    return orderService.updateOrderStatus(orderId, status);
+                }));
+            }
+            start.countDown();
+            for (Future<OrderHistoryEntry> update : updates) {
+                update.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            admins.shutdownNow();
+        }
+
+        // Each update moved the order from the status the previous one left, so it is counted once
+        long counted = salesAnalytics.dashboard(1, 100).getByStatus().stream()
+                .filter(total -> total.getName().startsWith(prefix))
+                .mapToLong(SalesDashboard.Total::getOrders).sum();
+        assertThat(counted).isEqualTo(1);
+    }
+
+    @Test
+    void dashboardIsServedFromMemoryAndOnlyToAdmins() throws Exception {
+        orderService.placeOrder(userId, newOrder(), items(monitor, 1));
+        String adminToken = "Bearer " + tokenService.issue(tokenService.newClaims(null, "admin", "ADMIN"));
+        String userToken = "Bearer " + tokenService.issue(tokenService.newClaims(userId, "buyer", "USER"));
+
+        new QueryBudget(sqlStatementCounter).assertAtMost(0, "GET /api/analytics/dashboard", () ->
+                mockMvc.perform(get("/api/analytics/dashboard").param("days", "7")
+                                .header("Authorization", adminToken))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.daily.length()").value(7)));
+        mockMvc.perform(get("/api/analytics/dashboard").header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private Product product(String name, double price) {
+        Product product = newProduct(name, price, 1_000_000);
+        product.setCategory(category);
+        return product;
+    }
+
+    // Alternating product, quantity pairs
+    private static List<OrderItem> items(Object... productsAndQuantities) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < productsAndQuantities.length; i += 2) {
+            items.add(newItem(((Product) productsAndQuantities[i]).getId(), (Integer) productsAndQuantities[i + 1]));
+        }
+        return items;
+    }
+
+    private static SalesDashboard.Total total(List<SalesDashboard.Total> totals, String name) {
+        return totals.stream().filter(total -> total.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+}
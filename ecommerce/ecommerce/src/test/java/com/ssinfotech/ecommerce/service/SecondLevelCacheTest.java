@@ -0,0 +1,160 @@
+package com.ssinfotech.ecommerce.service;
+
+import com.ssinfotech.ecommerce.metrics.QueryBudget;
+import com.ssinfotech.ecommerce.metrics.SqlStatementCounter;
+import com.ssinfotech.ecommerce.model.Order;
+import com.ssinfotech.ecommerce.model.OrderItem;
+import com.ssinfotech.ecommerce.model.Product;
+import com.ssinfotech.ecommerce.model.User;
+import com.ssinfotech.ecommerce.repository.OrderRepository;
+import com.ssinfotech.ecommerce.repository.ProductRepository;
+import com.ssinfotech.ecommerce.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newItem;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newOrder;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newProduct;
+import static com.ssinfotech.ecommerce.fixture.TestFixtures.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Second-level cache for Product and User and the query cache for findByEmail: repeated loads
+ * in new sessions cost no SQL, and entity updates, new users and stock reservations (a plain
+ * JDBC UPDATE) are visible on the next load.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    private QueryBudget queryBudget;
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(sqlStatementCounter);
+
+        product = productRepository.save(newProduct("Patient monitor", 1200.0, 50));
+        user = userRepository.save(newUser("Cached Buyer"));
+    }
+
+    @Test
+    void productIsLoadedFromTheCacheInLaterSessions() throws Exception {
+        entityManagerFactory.getCache().evict(Product.class, product.getId());
+        productRepository.findById(product.getId()).orElseThrow();
+        long hits = productRegion().getHitCount();
+
+        queryBudget.assertAtMost(0, "findById of a cached product", () -> {
+            for (int i = 0; i < 3; i++) {
+                assertThat(productRepository.findById(product.getId())).get()
+                        .extracting(Product::getName).isEqualTo("Patient monitor");
+            }
+        });
+        assertThat(productRegion().getHitCount()).isEqualTo(hits + 3);
+    }
+
+    @Test
+    void lazyOrderItemProductsResolveFromTheCache() throws Exception {
+        Long orderId = orderService.placeOrder(user.getId(), newOrder(), items(2)).getId();
+        productRepository.findById(product.getId()).orElseThrow();  // cache the post-reservation state
+
+        List<String> statements = queryBudget.record(() -> transactionTemplate.executeWithoutResult(tx -> {
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            for (OrderItem item : order.getOrderItems()) {
+                assertThat(item.getProduct().getName()).isEqualTo("Patient monitor");
+            }
+        }));
+        assertThat(statements).noneMatch(sql -> sql.contains(" from product "));
+    }
+
+    @Test
+    void productUpdatesAndStockReservationsAreVisibleOnTheNextLoad() throws Exception {
+        productRepository.findById(product.getId()).orElseThrow();
+
+        // Saved through Hibernate: the cached entry is replaced on commit
+        Product changed = productRepository.findById(product.getId()).orElseThrow();
+        changed.setPrice(999.0);
+        productService.saveProduct(changed);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getPrice()).isEqualTo(999.0);
+
+        // Stock is reserved with a JDBC UPDATE: the cached entry is evicted after the order commits
+        orderService.placeOrder(user.getId(), newOrder(), items(5));
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getQuantity()).isEqualTo(45);
+    }
+
+    @Test
+    void stockLocksAreReleasedWhenTheOrderRollsBack() throws Exception {
+        productRepository.findById(product.getId()).orElseThrow();
+
+        // The reservation locks the cached product, then fails: only 50 are in stock
+        assertThatThrownBy(() -> orderService.placeOrder(user.getId(), newOrder(), items(51)))
+                .hasMessageContaining("Insufficient stock");
+
+        // A lock left behind would keep the product out of the cache until it timed out
+        productRepository.findById(product.getId()).orElseThrow();
+        queryBudget.assertAtMost(0, "findById after the rolled-back reservation", () ->
+                assertThat(productRepository.findById(product.getId())).get()
+                        .extracting(Product::getQuantity).isEqualTo(50));
+    }
+
+    @Test
+    void findByEmailUsesTheQueryCacheUntilUsersChange() throws Exception {
+        userRepository.findByEmail(user.getEmail());
+        queryBudget.assertAtMost(0, "findByEmail of a cached user", () ->
+                assertThat(userRepository.findByEmail(user.getEmail()).getId()).isEqualTo(user.getId()));
+
+        // A cached "no such user" must not survive the user's registration
+        User later = newUser("Later Buyer");
+        String email = later.getEmail();
+        assertThat(userRepository.findByEmail(email)).isNull();
+        userRepository.save(later);
+        assertThat(userRepository.findByEmail(email)).isNotNull();
+
+        // Renaming is seen through the cached query too
+        User renamed = userRepository.findByEmail(email);
+        renamed.setName("Renamed Buyer");
+        userRepository.save(renamed);
+        assertThat(userRepository.findByEmail(email).getName()).isEqualTo("Renamed Buyer");
+    }
+
+    private CacheRegionStatistics productRegion() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics("product");
+    }
+
+    private List<OrderItem> items(int quantity) {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(newItem(product.getId(), quantity));
+        return items;
+    }
+
+}